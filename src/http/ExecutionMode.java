@@ -0,0 +1,7 @@
+package http;
+
+public enum ExecutionMode {
+    SINGLE_THREAD,
+    PLATFORM_POOL,
+    VIRTUAL_THREADS
+}
@@ -4,6 +4,8 @@ import com.google.gson.*;
 import com.sun.net.httpserver.HttpServer;
 import http.adapter.DurationAdapter;
 import http.adapter.LocalDateTimeAdapter;
+import http.adapter.TaskAdapterFactory;
+import manager.task.FileBackedTaskManager;
 import manager.task.TaskManager;
 import manager.Managers;
 import http.handler.*;
@@ -12,12 +14,17 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class HttpTaskServer {
-    private static final int PORT = 8080;
+    private static final long STOP_TIMEOUT_SECONDS = 5;
 
     private final HttpServer server;
     private final TaskManager manager;
+    private final ExecutorService executor;
+    private final ResponseCache responseCache;
     private static Gson gson;
 
     public static synchronized Gson getGson() {
@@ -27,6 +34,7 @@ public class HttpTaskServer {
         gson = new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                 .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapterFactory(new TaskAdapterFactory())
                 .create();
         return gson;
     }
@@ -36,34 +44,85 @@ public class HttpTaskServer {
     }
 
     public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, ServerConfig.defaults());
+    }
+
+    public HttpTaskServer(TaskManager manager, ServerConfig config) throws IOException {
         this.manager = manager;
         gson = getGson();
-        this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
-        createContexts();
+        this.server = HttpServer.create(new InetSocketAddress(config.port()), config.backlog());
+        this.executor = switch (config.mode()) {
+            case SINGLE_THREAD -> null;
+            case PLATFORM_POOL -> Executors.newFixedThreadPool(config.poolSize());
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+        server.setExecutor(executor);
+        this.responseCache = new ResponseCache(config.responseCacheBytes());
+        createContexts(config.compressionThreshold());
+    }
+
+    public ResponseCache.Stats getCacheStats() {
+        return responseCache.stats();
     }
 
-    private void createContexts() {
-        server.createContext("/tasks", new TasksHandler(manager, gson));
-        server.createContext("/subtasks", new SubtasksHandler(manager, gson));
-        server.createContext("/epics", new EpicsHandler(manager, gson));
-        server.createContext("/history", new HistoryHandler(manager, gson));
-        server.createContext("/prioritized", new PrioritizedHandler(manager, gson));
+    // Фактический порт; при port = 0 его выбирает система
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void createContexts(int compressionThreshold) {
+        server.createContext("/tasks", new TasksHandler(manager, gson, responseCache, compressionThreshold));
+        server.createContext("/subtasks", new SubtasksHandler(manager, gson, responseCache, compressionThreshold));
+        server.createContext("/epics", new EpicsHandler(manager, gson, responseCache, compressionThreshold));
+        server.createContext("/history", new HistoryHandler(manager, gson, compressionThreshold));
+        server.createContext("/prioritized",
+                new PrioritizedHandler(manager, gson, responseCache, compressionThreshold));
+        server.createContext("/batch", new BatchHandler(manager, gson, compressionThreshold));
+        server.createContext("/slots", new SlotsHandler(manager, gson, responseCache, compressionThreshold));
     }
 
     public void start() {
         server.start();
-        System.out.println("Сервер запущен на порту " + PORT);
+        System.out.println("Сервер запущен на порту " + getPort());
     }
 
     public void stop() {
         server.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (manager instanceof FileBackedTaskManager fileBacked) {
+            fileBacked.flush();
+        }
         System.out.println("Сервер остановлен");
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
     public static void main(String[] args) {
+        // Ответы идут chunked-блоками: без TCP_NODELAY последний блок ждёт подтверждения
+        // предыдущего, и каждый ответ задерживается на время отложенного ACK клиента.
+        // Свойство общее для всех HttpServer в JVM и читается при создании первого, поэтому его
+        // задаёт только main; при встраивании сервера передайте -Dsun.net.httpserver.nodelay=true
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
         try {
-            HttpTaskServer taskServer = new HttpTaskServer();
+            Integer port = parsePort(args);
+            if (port == null) {
+                System.err.println("Использование: java http.HttpTaskServer [порт 1-65535]");
+                System.exit(2);
+            }
+            // FileBackedTaskManager потокобезопасен, поэтому запросы можно обслуживать параллельно
+            HttpTaskServer taskServer = new HttpTaskServer(Managers.getDefault(),
+                    ServerConfig.defaults().withPort(port).withVirtualThreads());
             taskServer.start();
             System.out.println("Нажмите ENTER, если хотите остановить сервер...");
             System.in.read();
@@ -72,4 +131,16 @@ public class HttpTaskServer {
             e.printStackTrace();
         }
     }
+
+    // Порт из первого аргумента или порт по умолчанию; null, если аргумент не является портом
+    private static Integer parsePort(String[] args) {
+        if (args.length == 0) return ServerConfig.DEFAULT_PORT;
+        if (args.length > 1) return null;
+        try {
+            int port = Integer.parseInt(args[0]);
+            return port >= 1 && port <= 65535 ? port : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
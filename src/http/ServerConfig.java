@@ -0,0 +1,73 @@
+package http;
+
+// mode: SINGLE_THREAD — все запросы на потоке-диспетчере HttpServer (поведение по умолчанию);
+// PLATFORM_POOL — пул из poolSize платформенных потоков; VIRTUAL_THREADS — виртуальный поток на запрос.
+// В многопоточных режимах менеджер должен быть потокобезопасным: FileBackedTaskManager,
+// ConcurrentTaskManager, VersionedTaskManager или QueuedTaskManager.
+// backlog = 0 — размер очереди соединений выбирает система.
+// responseCacheBytes — объём кэша готовых ответов, 0 отключает кэш.
+// compressionThreshold — ответы не короче этого числа байт сжимаются gzip или deflate, если клиент
+// их принимает (Accept-Encoding); NO_COMPRESSION отключает сжатие.
+public record ServerConfig(int port, int backlog, ExecutionMode mode, int poolSize, long responseCacheBytes,
+                           int compressionThreshold) {
+    public static final int DEFAULT_PORT = 8080;
+    public static final long DEFAULT_RESPONSE_CACHE_BYTES = 8L << 20;
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+    public static final int NO_COMPRESSION = -1;
+
+    public ServerConfig {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Некорректный порт: " + port);
+        }
+        if (backlog < 0) {
+            throw new IllegalArgumentException("Размер очереди соединений не может быть отрицательным");
+        }
+        if (mode == null) {
+            throw new IllegalArgumentException("Не указан режим выполнения запросов");
+        }
+        if (mode == ExecutionMode.PLATFORM_POOL && poolSize <= 0) {
+            throw new IllegalArgumentException("Размер пула должен быть положительным");
+        }
+        if (responseCacheBytes < 0) {
+            throw new IllegalArgumentException("Размер кэша ответов не может быть отрицательным");
+        }
+        if (compressionThreshold < NO_COMPRESSION) {
+            throw new IllegalArgumentException("Некорректный порог сжатия: " + compressionThreshold);
+        }
+    }
+
+    public static ServerConfig defaults() {
+        return new ServerConfig(DEFAULT_PORT, 0, ExecutionMode.SINGLE_THREAD, 0, DEFAULT_RESPONSE_CACHE_BYTES,
+                DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    public ServerConfig withPort(int port) {
+        return new ServerConfig(port, backlog, mode, poolSize, responseCacheBytes, compressionThreshold);
+    }
+
+    public ServerConfig withBacklog(int backlog) {
+        return new ServerConfig(port, backlog, mode, poolSize, responseCacheBytes, compressionThreshold);
+    }
+
+    public ServerConfig withVirtualThreads() {
+        return new ServerConfig(port, backlog, ExecutionMode.VIRTUAL_THREADS, 0, responseCacheBytes,
+                compressionThreshold);
+    }
+
+    public ServerConfig withPlatformPool(int poolSize) {
+        return new ServerConfig(port, backlog, ExecutionMode.PLATFORM_POOL, poolSize, responseCacheBytes,
+                compressionThreshold);
+    }
+
+    public ServerConfig withResponseCache(long responseCacheBytes) {
+        return new ServerConfig(port, backlog, mode, poolSize, responseCacheBytes, compressionThreshold);
+    }
+
+    public ServerConfig withCompressionThreshold(int compressionThreshold) {
+        return new ServerConfig(port, backlog, mode, poolSize, responseCacheBytes, compressionThreshold);
+    }
+
+    public ServerConfig withoutCompression() {
+        return withCompressionThreshold(NO_COMPRESSION);
+    }
+}
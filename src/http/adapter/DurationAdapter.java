@@ -1,21 +1,40 @@
 package http.adapter;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.time.Duration;
+import java.time.format.DateTimeParseException;
 
-public class DurationAdapter
-        implements JsonSerializer<Duration>, JsonDeserializer<Duration> {
+public class DurationAdapter extends TypeAdapter<Duration> {
 
     @Override
-    public JsonElement serialize(Duration src, Type typeOfSrc, JsonSerializationContext ctx) {
-        return new JsonPrimitive(src.toString());
+    public void write(JsonWriter out, Duration value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(value.toString());
+        }
     }
 
     @Override
-    public Duration deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext ctx)
-            throws JsonParseException {
-        return Duration.parse(json.getAsString());
+    public Duration read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return parse(in.nextString());
+    }
+
+    public static Duration parse(String text) {
+        try {
+            return Duration.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException("Некорректная продолжительность: '" + text + "'", e);
+        }
     }
 }
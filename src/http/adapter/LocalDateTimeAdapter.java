@@ -1,23 +1,106 @@
 package http.adapter;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
-public class LocalDateTimeAdapter
-        implements JsonSerializer<LocalDateTime>, JsonDeserializer<LocalDateTime> {
+public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
     private static final DateTimeFormatter FMT = DateTimeFormatter.ISO_DATE_TIME;
 
     @Override
-    public JsonElement serialize(LocalDateTime src, Type typeOfSrc, JsonSerializationContext ctx) {
-        return new JsonPrimitive(src.format(FMT));
+    public void write(JsonWriter out, LocalDateTime value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(format(value));
+        }
     }
 
     @Override
-    public LocalDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext ctx)
-            throws JsonParseException {
-        return LocalDateTime.parse(json.getAsString(), FMT);
+    public LocalDateTime read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return parse(in.nextString());
+    }
+
+    // Тот же текст, что и FMT.format, без разбора шаблона форматтера
+    public static String format(LocalDateTime value) {
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            return value.format(FMT);
+        }
+        char[] chars = new char[29];
+        putDigits(chars, 0, value.getYear(), 4);
+        chars[4] = '-';
+        putDigits(chars, 5, value.getMonthValue(), 2);
+        chars[7] = '-';
+        putDigits(chars, 8, value.getDayOfMonth(), 2);
+        chars[10] = 'T';
+        putDigits(chars, 11, value.getHour(), 2);
+        chars[13] = ':';
+        putDigits(chars, 14, value.getMinute(), 2);
+        chars[16] = ':';
+        putDigits(chars, 17, value.getSecond(), 2);
+        int length = 19;
+        int nano = value.getNano();
+        if (nano > 0) {
+            chars[length++] = '.';
+            for (int divisor = 100_000_000; nano > 0; divisor /= 10) {
+                chars[length++] = (char) ('0' + nano / divisor);
+                nano %= divisor;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    public static LocalDateTime parse(String text) {
+        // Быстрый путь для yyyy-MM-ddTHH:mm[:ss]; остальное разбирает DateTimeFormatter
+        int length = text.length();
+        if ((length == 16 || length == 19) && text.charAt(4) == '-' && text.charAt(7) == '-'
+                && text.charAt(10) == 'T' && text.charAt(13) == ':' && (length == 16 || text.charAt(16) == ':')) {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 2);
+            int day = digits(text, 8, 2);
+            int hour = digits(text, 11, 2);
+            int minute = digits(text, 14, 2);
+            int second = length == 19 ? digits(text, 17, 2) : 0;
+            if ((year | month | day | hour | minute | second) >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                } catch (DateTimeException e) {
+                    // сообщение об ошибке сформирует общий разбор ниже
+                }
+            }
+        }
+        try {
+            return LocalDateTime.parse(text, FMT);
+        } catch (DateTimeException e) {
+            throw new JsonParseException("Некорректная дата: '" + text + "'", e);
+        }
+    }
+
+    private static void putDigits(char[] chars, int from, int value, int width) {
+        for (int i = from + width - 1; i >= from; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static int digits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
     }
 }
@@ -0,0 +1,211 @@
+package http.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Потоковое чтение и запись Task, Epic и Subtask без рефлексии. Поле "type" задаёт класс объекта,
+// поэтому смешанные списки (история, приоритеты) читаются обратно с исходными типами. Если "type"
+// нет, используется запрошенный класс. Объекты создаются через конструкторы, так что у эпика
+// из JSON всегда есть список подзадач. TaskListView только записывается: с проекцией полей
+// и, для страниц, в конверте с курсором следующей страницы.
+public class TaskAdapterFactory implements TypeAdapterFactory {
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+        if (raw == Task.class) return (TypeAdapter<T>) new TaskAdapter(null);
+        if (raw == Epic.class) return (TypeAdapter<T>) new TaskAdapter(TaskType.EPIC);
+        if (raw == Subtask.class) return (TypeAdapter<T>) new TaskAdapter(TaskType.SUBTASK);
+        if (raw == TaskListView.class) return (TypeAdapter<T>) new TaskListViewAdapter();
+        return null;
+    }
+
+    // Пишет только поля из fields (null — все). Без проекции endTime есть только у эпика, где оно хранится;
+    // запрошенное явно, оно вычисляется для задачи любого типа
+    private static void writeTask(JsonWriter out, Task task, Set<String> fields) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (fields == null || fields.contains("type")) {
+            out.name("type").value(task.getType().name());
+        }
+        writeString(out, fields, "name", task.getName());
+        writeString(out, fields, "description", task.getDescription());
+        if (fields == null || fields.contains("id")) {
+            out.name("id").value(task.getId());
+        }
+        if (task.getStatus() != null) {
+            writeString(out, fields, "status", task.getStatus().name());
+        }
+        if (task.getDuration() != null) {
+            writeString(out, fields, "duration", task.getDuration().toString());
+        }
+        if (task.getStartTime() != null) {
+            writeString(out, fields, "startTime", LocalDateTimeAdapter.format(task.getStartTime()));
+        }
+        if (task instanceof Epic epic && (fields == null || fields.contains("subtaskIds"))) {
+            out.name("subtaskIds").beginArray();
+            for (Integer id : epic.getSubtaskIds()) {
+                out.value(id);
+            }
+            out.endArray();
+        }
+        boolean endTime = fields == null ? task instanceof Epic : fields.contains("endTime");
+        if (endTime && task.getEndTime() != null) {
+            out.name("endTime").value(LocalDateTimeAdapter.format(task.getEndTime()));
+        }
+        if (task instanceof Subtask subtask && (fields == null || fields.contains("epicId"))) {
+            out.name("epicId").value(subtask.getEpicId());
+        }
+        out.endObject();
+    }
+
+    private static void writeString(JsonWriter out, Set<String> fields, String name, String value)
+            throws IOException {
+        if (value != null && (fields == null || fields.contains(name))) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static final class TaskListViewAdapter extends TypeAdapter<TaskListView> {
+        @Override
+        public void write(JsonWriter out, TaskListView view) throws IOException {
+            if (view.paged()) {
+                out.beginObject();
+                out.name("items");
+            }
+            out.beginArray();
+            for (Task task : view.items()) {
+                writeTask(out, task, view.fields());
+            }
+            out.endArray();
+            if (view.paged()) {
+                if (view.next() != null) {
+                    out.name("next").value(view.next());
+                }
+                out.endObject();
+            }
+        }
+
+        @Override
+        public TaskListView read(JsonReader in) {
+            throw new UnsupportedOperationException("TaskListView не читается из JSON");
+        }
+    }
+
+    // required — тип, которого ждёт вызывающий; null, если подходит любая задача
+    private static final class TaskAdapter extends TypeAdapter<Task> {
+        private final TaskType required;
+
+        TaskAdapter(TaskType required) {
+            this.required = required;
+        }
+
+        @Override
+        public void write(JsonWriter out, Task task) throws IOException {
+            writeTask(out, task, null);
+        }
+
+        @Override
+        public Task read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            TaskType type = null;
+            String name = null;
+            String description = null;
+            int id = 0;
+            Status status = null;
+            Duration duration = null;
+            LocalDateTime startTime = null;
+            LocalDateTime endTime = null;
+            List<Integer> subtaskIds = null;
+            int epicId = 0;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (field) {
+                    case "type" -> type = parseEnum(in.nextString(), TYPES, "тип задачи");
+                    case "name" -> name = in.nextString();
+                    case "description" -> description = in.nextString();
+                    case "id" -> id = in.nextInt();
+                    case "status" -> status = parseEnum(in.nextString(), STATUSES, "статус");
+                    case "duration" -> duration = DurationAdapter.parse(in.nextString());
+                    case "startTime" -> startTime = LocalDateTimeAdapter.parse(in.nextString());
+                    case "endTime" -> endTime = LocalDateTimeAdapter.parse(in.nextString());
+                    case "epicId" -> epicId = in.nextInt();
+                    case "subtaskIds" -> {
+                        subtaskIds = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            subtaskIds.add(in.nextInt());
+                        }
+                        in.endArray();
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (type == null) {
+                type = required == null ? TaskType.TASK : required;
+            } else if (required != null && type != required) {
+                throw new JsonParseException("Ожидался тип " + required + ", получен " + type);
+            }
+            Task task = switch (type) {
+                case TASK -> new Task(name, description, status, startTime, duration);
+                case SUBTASK -> new Subtask(name, description, status, epicId, startTime, duration);
+                case EPIC -> {
+                    Epic epic = new Epic(name, description);
+                    epic.setId(id);
+                    if (status != null) epic.setStatus(status);
+                    if (duration != null) epic.setDuration(duration);
+                    epic.setStartTime(startTime);
+                    epic.setEndTime(endTime);
+                    if (subtaskIds != null) subtaskIds.forEach(epic::addSubtaskId);
+                    yield epic;
+                }
+            };
+            task.setId(id);
+            return task;
+        }
+
+        private static <E extends Enum<E>> E parseEnum(String value, E[] values, String fieldName) {
+            for (E candidate : values) {
+                if (candidate.name().equals(value)) {
+                    return candidate;
+                }
+            }
+            throw new JsonParseException("Некорректное значение поля " + fieldName + ": '" + value + "'");
+        }
+    }
+}
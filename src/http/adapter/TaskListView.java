@@ -0,0 +1,22 @@
+package http.adapter;
+
+import model.Task;
+
+import java.util.List;
+import java.util.Set;
+
+// Список задач для ответа. fields — имена полей, которые нужно записать (null — все поля);
+// paged — ответ-страница вида {"items": [...], "next": "курсор"}, иначе обычный массив.
+// next отсутствует на последней странице
+public record TaskListView(List<? extends Task> items, Set<String> fields, boolean paged, String next) {
+    public static final Set<String> FIELDS = Set.of("type", "name", "description", "id", "status",
+            "duration", "startTime", "endTime", "subtaskIds", "epicId");
+
+    public static TaskListView all(List<? extends Task> items, Set<String> fields) {
+        return new TaskListView(items, fields, false, null);
+    }
+
+    public static TaskListView page(List<? extends Task> items, Set<String> fields, String next) {
+        return new TaskListView(items, fields, true, next);
+    }
+}
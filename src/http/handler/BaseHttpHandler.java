@@ -1,21 +1,176 @@
 package http.handler;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 public abstract class BaseHttpHandler implements HttpHandler {
-    protected void sendText(HttpExchange exchange, String text) throws IOException {
-        byte[] resp = text.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
-        exchange.sendResponseHeaders(200, resp.length);
-        exchange.getResponseBody().write(resp);
+    private static final int RESPONSE_BUFFER_SIZE = 16 * 1024;
+    // Ответ короче этого размера отправляется целиком с Content-Length, если сжатие отключено
+    private static final int SMALL_RESPONSE_BYTES = 1024;
+
+    // Ответы не короче compressionThreshold байт сжимаются; отрицательное значение отключает сжатие
+    private final int compressionThreshold;
+
+    protected BaseHttpHandler(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    // Версии менеджера начинаются заново после перезапуска, поэтому ETag содержит случайную
+    // метку экземпляра обработчика и старый ETag клиента не совпадёт с новыми данными
+    private final String etagPrefix = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    protected String etag(long version) {
+        return "W/\"" + etagPrefix + "-" + version + "\"";
+    }
+
+    // Отвечает 304, если клиент прислал etag в If-None-Match; тогда данные не читаются и не сериализуются.
+    // Версию нужно получить до чтения данных, чтобы ETag не оказался новее отданного ответа
+    protected boolean sendNotModifiedIfMatches(HttpExchange exchange, String etag) throws IOException {
+        String header = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (header == null || !matches(header, etag)) {
+            return false;
+        }
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.sendResponseHeaders(304, -1);
         exchange.close();
+        return true;
+    }
+
+    private static boolean matches(String header, String etag) {
+        // Сравнение слабое: префикс W/ не учитывается
+        String expected = etag.substring(2);
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Пишет JSON прямо в тело ответа: ни строка, ни массив байт целиком не создаются. Длинный ответ
+    // уходит chunked-блоками (и сжимается, если клиент согласен) до окончания сериализации
+    protected void sendJson(HttpExchange exchange, Gson gson, Object value) throws IOException {
+        sendJson(exchange, gson, value, 200);
+    }
+
+    protected void sendJson(HttpExchange exchange, Gson gson, Object value, int status) throws IOException {
+        try {
+            writeJson(openBody(exchange, status), gson, value);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Отдаёт ответ из кэша, если он построен на той же версии; иначе получает и сериализует value потоком,
+    // попутно копируя байты в кэш, пока ответ не превысит cache.maxEntryBytes()
+    protected void sendCachedJson(HttpExchange exchange, Gson gson, ResponseCache cache, String key,
+                                  long version, String etag, Supplier<?> value) throws IOException {
+        exchange.getResponseHeaders().add("ETag", etag);
+        byte[] cached = cache.get(key, version);
+        if (cached != null) {
+            try (OutputStream body = openBody(exchange)) {
+                body.write(cached);
+            } finally {
+                exchange.close();
+            }
+            return;
+        }
+        // Кэшируется несжатое тело: копия снимается до сжатия
+        CapturingOutputStream capture = new CapturingOutputStream(openBody(exchange), cache.maxEntryBytes());
+        try {
+            writeJson(capture, gson, value.get());
+        } finally {
+            exchange.close();
+        }
+        byte[] body = capture.captured();
+        if (body != null) {
+            cache.put(key, version, body);
+        }
+    }
+
+    // Тело ответа с JSON. Заголовки отправляются при первом переполнении буфера или при закрытии,
+    // когда уже известно, сжимать ли ответ
+    private OutputStream openBody(HttpExchange exchange) {
+        return openBody(exchange, 200);
+    }
+
+    private OutputStream openBody(HttpExchange exchange, int status) {
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        String encoding = null;
+        if (compressionThreshold >= 0) {
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+            encoding = negotiateEncoding(exchange.getRequestHeaders().get("Accept-Encoding"));
+        }
+        int threshold = encoding != null ? compressionThreshold : SMALL_RESPONSE_BYTES;
+        return new ResponseBodyStream(exchange, status, encoding, threshold);
+    }
+
+    // gzip предпочтительнее deflate; кодирование с q=0 клиент явно отклонил
+    static String negotiateEncoding(List<String> acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String header : acceptEncoding) {
+            for (String part : header.split(",")) {
+                String[] tokens = part.split(";");
+                String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+                if (!accepted(tokens)) continue;
+                switch (coding) {
+                    case "gzip", "x-gzip", "*" -> gzip = true;
+                    case "deflate" -> deflate = true;
+                    default -> {
+                    }
+                }
+            }
+        }
+        return gzip ? "gzip" : deflate ? "deflate" : null;
+    }
+
+    private static boolean accepted(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String parameter = tokens[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) > 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void writeJson(OutputStream out, Gson gson, Object value) throws IOException {
+        try (JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(out, StandardCharsets.UTF_8), RESPONSE_BUFFER_SIZE))) {
+            gson.toJson(value, value.getClass(), writer);
+        }
     }
 
     protected void sendCreated(HttpExchange exchange) throws IOException {
@@ -38,6 +193,25 @@ public abstract class BaseHttpHandler implements HttpHandler {
         exchange.close();
     }
 
+    protected void sendBadRequest(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(400, -1);
+        exchange.close();
+    }
+
+    // Параметры строки запроса с раскодированными значениями; для null — пустой словарь
+    protected static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
     protected int parseId(String query) {
         return Integer.parseInt(query.split("=")[1]);
     }
@@ -48,4 +222,112 @@ public abstract class BaseHttpHandler implements HttpHandler {
             return br.lines().collect(Collectors.joining());
         }
     }
+
+    // Передаёт байты дальше и копирует их, пока копия не больше limit
+    private static final class CapturingOutputStream extends FilterOutputStream {
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        CapturingOutputStream(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (copy == null) return;
+            if (copy.size() + len > limit) {
+                copy = null;
+            } else {
+                copy.write(b, off, len);
+            }
+        }
+
+        byte[] captured() {
+            return copy == null ? null : copy.toByteArray();
+        }
+    }
+
+    // Копит первые threshold байт. Если тело закончилось раньше, отправляет его целиком с Content-Length
+    // и без сжатия; иначе отправляет заголовки для chunked-ответа и дальше пишет через компрессор
+    private static final class ResponseBodyStream extends OutputStream {
+        private final HttpExchange exchange;
+        private final int status;
+        private final String encoding;
+        private byte[] buffer;
+        private int count;
+        private OutputStream out;
+
+        ResponseBodyStream(HttpExchange exchange, int status, String encoding, int threshold) {
+            this.exchange = exchange;
+            this.status = status;
+            this.encoding = encoding;
+            this.buffer = new byte[threshold];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out == null && count + len <= buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+            if (out == null) {
+                startStreaming();
+            }
+            out.write(b, off, len);
+        }
+
+        private void startStreaming() throws IOException {
+            OutputStream body = exchange.getResponseBody();
+            if (encoding != null) {
+                exchange.getResponseHeaders().add("Content-Encoding", encoding);
+            }
+            exchange.sendResponseHeaders(status, 0);
+            if ("gzip".equals(encoding)) {
+                out = new GZIPOutputStream(body, RESPONSE_BUFFER_SIZE);
+            } else if ("deflate".equals(encoding)) {
+                out = new DeflaterOutputStream(body);
+            } else {
+                out = body;
+            }
+            out.write(buffer, 0, count);
+            buffer = null;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                out.close();
+                return;
+            }
+            if (buffer == null) return;
+            exchange.sendResponseHeaders(status, count == 0 ? -1 : count);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(buffer, 0, count);
+            }
+            buffer = null;
+        }
+    }
 }
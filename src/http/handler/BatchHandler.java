@@ -0,0 +1,173 @@
+package http.handler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import manager.task.BatchOperation;
+import manager.task.TaskManager;
+import manager.task.exception.BatchException;
+import manager.task.exception.IntersectionException;
+import manager.task.exception.NotFoundException;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// POST /batch — несколько изменений за один запрос. Тело — массив операций или объект
+// {"atomic": true, "operations": [...]}. Операция: {"op": "create" | "update", "task": {...}}
+// или {"op": "delete", "type": "TASK", "id": 1}; epicId подзадачи -N ссылается на эпик из N-й операции (с 1).
+// Ответ — массив результатов по операциям со статусами, как у /tasks, /epics и /subtasks:
+// 201 — выполнена, 404 — не найдена, 406 — пересечение по времени, 400 — некорректные данные.
+// Без atomic операции выполняются по одной, и ошибка одной не мешает остальным. С atomic пачка
+// применяется целиком через TaskManager.applyAll; если она отклонена, ответ 409, у операции с ошибкой
+// её статус, у остальных 424
+public class BatchHandler extends BaseHttpHandler {
+    static final int MAX_OPERATIONS = 1000;
+
+    private final TaskManager manager;
+    private final Gson gson;
+
+    // id — id задачи, к которой применена операция; error — текст ошибки
+    private record Result(int status, Integer id, String error) {
+        static Result ok(int id) {
+            return new Result(201, id, null);
+        }
+
+        static Result failed(RuntimeException e) {
+            int status = e instanceof IntersectionException ? 406 : e instanceof NotFoundException ? 404 : 400;
+            return new Result(status, null, e.getMessage());
+        }
+    }
+
+    public BatchHandler(TaskManager manager, Gson gson, int compressionThreshold) {
+        super(compressionThreshold);
+        this.manager = manager;
+        this.gson = gson;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendServerError(exchange);
+                return;
+            }
+            boolean atomic;
+            List<BatchOperation> operations;
+            try {
+                JsonElement body = JsonParser.parseString(readRequestBody(exchange));
+                JsonArray array;
+                if (body.isJsonArray()) {
+                    atomic = false;
+                    array = body.getAsJsonArray();
+                } else {
+                    JsonObject request = body.getAsJsonObject();
+                    atomic = request.has("atomic") && request.get("atomic").getAsBoolean();
+                    array = request.getAsJsonArray("operations");
+                }
+                operations = parseOperations(array);
+            } catch (JsonParseException | IllegalArgumentException | IllegalStateException
+                     | ClassCastException | NullPointerException e) {
+                sendBadRequest(exchange);
+                return;
+            }
+            if (atomic) {
+                applyAtomically(exchange, operations);
+            } else {
+                sendJson(exchange, gson, applyEach(operations));
+            }
+        } catch (RuntimeException e) {
+            sendServerError(exchange);
+        }
+    }
+
+    private List<BatchOperation> parseOperations(JsonArray array) {
+        if (array.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("В пачке больше " + MAX_OPERATIONS + " операций");
+        }
+        List<BatchOperation> operations = new ArrayList<>(array.size());
+        for (JsonElement element : array) {
+            JsonObject operation = element.getAsJsonObject();
+            String op = operation.get("op").getAsString();
+            operations.add(switch (op) {
+                case "create" -> BatchOperation.create(gson.fromJson(operation.get("task"), Task.class));
+                case "update" -> BatchOperation.update(gson.fromJson(operation.get("task"), Task.class));
+                case "delete" -> BatchOperation.delete(TaskType.valueOf(operation.get("type").getAsString()),
+                        operation.get("id").getAsInt());
+                default -> throw new IllegalArgumentException("Неизвестная операция " + op);
+            });
+        }
+        return operations;
+    }
+
+    private void applyAtomically(HttpExchange exchange, List<BatchOperation> operations) throws IOException {
+        List<Result> results = new ArrayList<>(operations.size());
+        try {
+            manager.applyAll(operations);
+            for (BatchOperation operation : operations) {
+                results.add(Result.ok(idOf(operation)));
+            }
+            sendJson(exchange, gson, results);
+        } catch (BatchException e) {
+            for (int i = 0; i < operations.size(); i++) {
+                results.add(i == e.getIndex() ? Result.failed((RuntimeException) e.getCause())
+                        : new Result(424, null, null));
+            }
+            sendJson(exchange, gson, results, 409);
+        } catch (IllegalArgumentException | NotFoundException e) {
+            // Отказ менеджера вне проверки пачки не относится к одной операции: пачка отклонена, каждая
+            // операция получает 400. Остальные ошибки (например, ManagerSaveException после изменения
+            // памяти) не значат, что пачка не применена, и дают 500
+            results.clear();
+            for (int i = 0; i < operations.size(); i++) {
+                results.add(new Result(400, null, e.getMessage()));
+            }
+            sendJson(exchange, gson, results, 409);
+        }
+    }
+
+    private List<Result> applyEach(List<BatchOperation> operations) {
+        List<Result> results = new ArrayList<>(operations.size());
+        for (BatchOperation operation : operations) {
+            BatchOperation resolved = resolveEpicRef(operation, operations, results);
+            try {
+                manager.applyAll(List.of(resolved));
+                results.add(Result.ok(idOf(resolved)));
+            } catch (BatchException e) {
+                results.add(Result.failed((RuntimeException) e.getCause()));
+            } catch (IllegalArgumentException | NotFoundException e) {
+                results.add(Result.failed(e));
+            }
+        }
+        return results;
+    }
+
+    // Операции выполняются по отдельности, поэтому ссылку на эпик из пачки заменяем его настоящим id.
+    // Если эпик не создан, ссылка остаётся и подзадача получает 404
+    private static BatchOperation resolveEpicRef(BatchOperation operation, List<BatchOperation> operations,
+                                                 List<Result> results) {
+        if (operation.kind() != BatchOperation.Kind.CREATE || !(operation.task() instanceof Subtask subtask)
+                || subtask.getEpicId() >= 0) {
+            return operation;
+        }
+        int index = -subtask.getEpicId() - 1;
+        if (index >= results.size() || results.get(index).status() != 201
+                || operations.get(index).type() != TaskType.EPIC) {
+            return operation;
+        }
+        Subtask copy = new Subtask(subtask.getName(), subtask.getDescription(), subtask.getStatus(),
+                results.get(index).id(), subtask.getStartTime(), subtask.getDuration());
+        return BatchOperation.create(copy);
+    }
+
+    private static int idOf(BatchOperation operation) {
+        return operation.task() != null ? operation.task().getId() : operation.id();
+    }
+}
@@ -4,20 +4,24 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import manager.task.TaskManager;
 import model.Epic;
+import model.TaskType;
 import manager.task.exception.NotFoundException;
 import manager.task.exception.IntersectionException;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Map;
 
 
 public class EpicsHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
+    private final ResponseCache cache;
 
-    public EpicsHandler(TaskManager manager, Gson gson) {
+    public EpicsHandler(TaskManager manager, Gson gson, ResponseCache cache, int compressionThreshold) {
+        super(compressionThreshold);
         this.manager = manager;
         this.gson = gson;
+        this.cache = cache;
     }
 
     @Override
@@ -45,14 +49,31 @@ public class EpicsHandler extends BaseHttpHandler {
     }
 
     private void handleGet(HttpExchange exchange, String query) throws IOException {
-        if (query == null) {
-            List<Epic> epics = manager.getAllEpics();
-            sendText(exchange, gson.toJson(epics));
+        long version = manager.getVersion(TaskType.EPIC);
+        String etag = etag(version);
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (!params.containsKey("id")) {
+            ListQuery list;
+            int afterId;
+            try {
+                list = ListQuery.parse(params);
+                afterId = list.afterId();
+            } catch (IllegalArgumentException e) {
+                sendBadRequest(exchange);
+                return;
+            }
+            if (sendNotModifiedIfMatches(exchange, etag)) return;
+            String key = query == null ? "epics" : "epics?" + query;
+            sendCachedJson(exchange, gson, cache, key, version, etag, () -> list.paged()
+                    ? list.page(manager.getEpics(afterId, list.limit() + 1), ListQuery::idCursor)
+                    : list.all(manager.getAllEpics()));
         } else {
-            int id = parseId(query);
+            int id = Integer.parseInt(params.get("id"));
             try {
+                // Просмотр попадает в историю и при ответе 304
                 Epic epic = manager.getEpicById(id);
-                sendText(exchange, gson.toJson(epic));
+                if (sendNotModifiedIfMatches(exchange, etag)) return;
+                sendCachedJson(exchange, gson, cache, "epic:" + id, version, etag, () -> epic);
             } catch (NotFoundException e) {
                 sendNotFound(exchange);
             }
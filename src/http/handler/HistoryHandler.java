@@ -2,17 +2,17 @@ package http.handler;
 
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
+import manager.history.HistoryEntry;
 import manager.task.TaskManager;
-import model.Task;
 
 import java.io.IOException;
-import java.util.List;
 
 public class HistoryHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
 
-    public HistoryHandler(TaskManager manager, Gson gson) {
+    public HistoryHandler(TaskManager manager, Gson gson, int compressionThreshold) {
+        super(compressionThreshold);
         this.manager = manager;
         this.gson = gson;
     }
@@ -21,9 +21,24 @@ public class HistoryHandler extends BaseHttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
         try {
             if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> history = manager.getHistory();
-                String json = gson.toJson(history);
-                sendText(exchange, json);
+                ListQuery list;
+                HistoryEntry after;
+                try {
+                    list = ListQuery.parse(parseQuery(exchange.getRequestURI().getRawQuery()));
+                    after = list.afterView();
+                } catch (IllegalArgumentException e) {
+                    sendBadRequest(exchange);
+                    return;
+                }
+                // Курсор — номер просмотра последней задачи страницы: если задачу удалят или просмотрят
+                // снова, следующая страница начнётся с первого более позднего просмотра
+                if (list.paged()) {
+                    int afterId = after.task() == null ? 0 : after.task().getId();
+                    sendJson(exchange, gson, list.historyPage(
+                            manager.getHistory(afterId, after.view(), list.limit() + 1)));
+                } else {
+                    sendJson(exchange, gson, list.all(manager.getHistory()));
+                }
             } else {
                 sendServerError(exchange);
             }
@@ -0,0 +1,135 @@
+package http.handler;
+
+import com.google.gson.JsonParseException;
+import http.adapter.LocalDateTimeAdapter;
+import http.adapter.TaskListView;
+import manager.history.HistoryEntry;
+import model.Task;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Параметры запроса списка: limit — размер страницы (без него отдаётся весь список обычным массивом),
+// cursor — значение next из предыдущей страницы, fields — перечень полей через запятую.
+// Некорректные значения дают IllegalArgumentException, обработчик отвечает 400
+record ListQuery(int limit, String cursor, Set<String> fields) {
+    static final int MAX_LIMIT = 1000;
+    private static final char CURSOR_SEPARATOR = '~';
+
+    static ListQuery parse(Map<String, String> params) {
+        int limit = -1;
+        String value = params.get("limit");
+        if (value != null) {
+            limit = Integer.parseInt(value);
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_LIMIT);
+            }
+        }
+        String cursor = params.get("cursor");
+        if (cursor != null && limit < 0) {
+            throw new IllegalArgumentException("cursor без limit");
+        }
+        Set<String> fields = null;
+        value = params.get("fields");
+        if (value != null) {
+            fields = Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(field -> !field.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet());
+            for (String field : fields) {
+                if (!TaskListView.FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("Неизвестное поле " + field);
+                }
+            }
+        }
+        return new ListQuery(limit, cursor, fields);
+    }
+
+    boolean paged() {
+        return limit > 0;
+    }
+
+    // Курсор списков по id — id последнего элемента страницы
+    int afterId() {
+        return cursor == null ? 0 : Integer.parseInt(cursor);
+    }
+
+    // Курсор истории — "view~id": номер просмотра и id задачи последнего элемента страницы.
+    // Возвращает просмотр-образец, задача в нём — только носитель id
+    HistoryEntry afterView() {
+        if (cursor == null) return new HistoryEntry(0, null);
+        int separator = cursor.indexOf(CURSOR_SEPARATOR);
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Некорректный курсор " + cursor);
+        }
+        long view = Long.parseLong(cursor.substring(0, separator));
+        if (view < 1) {
+            throw new IllegalArgumentException("Некорректный курсор " + cursor);
+        }
+        Task probe = new Task(null, null, null, null, null);
+        probe.setId(Integer.parseInt(cursor.substring(separator + 1)));
+        return new HistoryEntry(view, probe);
+    }
+
+    // Курсор списка по приоритету — "startTime~id" последнего элемента (startTime пустой, если времени нет).
+    // Возвращает задачу-образец для сравнения, саму задачу искать не нужно
+    Task afterTask() {
+        if (cursor == null) return null;
+        int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Некорректный курсор " + cursor);
+        }
+        LocalDateTime startTime = separator == 0 ? null : parseTime(cursor.substring(0, separator));
+        Task probe = new Task(null, null, null, startTime, null);
+        probe.setId(Integer.parseInt(cursor.substring(separator + 1)));
+        return probe;
+    }
+
+    // Время из параметра запроса; null, если параметра нет
+    static LocalDateTime parseTime(String value) {
+        if (value == null) return null;
+        try {
+            return LocalDateTimeAdapter.parse(value);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Некорректное время " + value, e);
+        }
+    }
+
+    static String idCursor(Task task) {
+        return String.valueOf(task.getId());
+    }
+
+    static String priorityCursor(Task task) {
+        String startTime = task.getStartTime() == null ? "" : LocalDateTimeAdapter.format(task.getStartTime());
+        return startTime + CURSOR_SEPARATOR + task.getId();
+    }
+
+    static String historyCursor(HistoryEntry entry) {
+        return String.valueOf(entry.view()) + CURSOR_SEPARATOR + entry.task().getId();
+    }
+
+    // fetched — до limit + 1 элементов: лишний элемент означает, что есть следующая страница
+    TaskListView page(List<? extends Task> fetched, Function<Task, String> cursorOf) {
+        if (fetched.size() <= limit) {
+            return TaskListView.page(fetched, fields, null);
+        }
+        List<? extends Task> items = fetched.subList(0, limit);
+        return TaskListView.page(items, fields, cursorOf.apply(items.get(limit - 1)));
+    }
+
+    // Страница истории: курсор берётся из номера просмотра, а не из самой задачи
+    TaskListView historyPage(List<HistoryEntry> fetched) {
+        List<Task> items = fetched.stream().limit(limit).map(HistoryEntry::task).toList();
+        String next = fetched.size() <= limit ? null : historyCursor(fetched.get(limit - 1));
+        return TaskListView.page(items, fields, next);
+    }
+
+    TaskListView all(List<? extends Task> items) {
+        return TaskListView.all(items, fields);
+    }
+}
@@ -3,27 +3,67 @@ package http.handler;
 import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import model.Task;
+import model.TaskType;
 import manager.task.TaskManager;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public class PrioritizedHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
+    private final ResponseCache cache;
 
-    public PrioritizedHandler(TaskManager manager, Gson gson) {
+    public PrioritizedHandler(TaskManager manager, Gson gson, ResponseCache cache, int compressionThreshold) {
+        super(compressionThreshold);
         this.manager = manager;
         this.gson = gson;
+        this.cache = cache;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try {
             if ("GET".equals(exchange.getRequestMethod())) {
-                List<Task> prioritized = manager.getPrioritizedTasks();
-                String json = gson.toJson(prioritized);
-                sendText(exchange, json);
+                // Порядок зависит только от задач и подзадач
+                long version = Math.max(manager.getVersion(TaskType.TASK), manager.getVersion(TaskType.SUBTASK));
+                String etag = etag(version);
+                String query = exchange.getRequestURI().getQuery();
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                ListQuery list;
+                Task after;
+                LocalDateTime from;
+                LocalDateTime to;
+                try {
+                    list = ListQuery.parse(params);
+                    after = list.afterTask();
+                    from = ListQuery.parseTime(params.get("from"));
+                    to = ListQuery.parseTime(params.get("to"));
+                    if (from != null && to != null && from.isAfter(to)) {
+                        throw new IllegalArgumentException("from позже to");
+                    }
+                } catch (IllegalArgumentException e) {
+                    sendBadRequest(exchange);
+                    return;
+                }
+                if (sendNotModifiedIfMatches(exchange, etag)) return;
+                String key = query == null ? "prioritized" : "prioritized?" + query;
+                boolean window = from != null || to != null;
+                // Курсор — время начала и id последней задачи, так что страницы не сдвигаются при удалении задач
+                sendCachedJson(exchange, gson, cache, key, version, etag, () -> {
+                    if (window) {
+                        // Страница окна начинается с курсора в индексе и читает не больше limit + 1 задач
+                        return list.paged()
+                                ? list.page(manager.getPrioritizedTasksBetween(from, to, after, list.limit() + 1),
+                                        ListQuery::priorityCursor)
+                                : list.all(manager.getPrioritizedTasksBetween(from, to));
+                    }
+                    return list.paged()
+                            ? list.page(manager.getPrioritizedTasks(after, list.limit() + 1), ListQuery::priorityCursor)
+                            : list.all(manager.getPrioritizedTasks());
+                });
             } else {
                 sendServerError(exchange);
             }
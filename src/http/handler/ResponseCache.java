@@ -0,0 +1,87 @@
+package http.handler;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Кэш готовых JSON-ответов. Запись хранит версию менеджера (TaskManager.getVersion), на которой
+// ответ был построен; при чтении с другой версией запись устаревшая и удаляется, так что любое
+// изменение коллекции сразу делает её ответы недействительными. Инвалидация сознательно грубее,
+// чем по отдельным задачам: версии ведутся по коллекции, поэтому запись в одну задачу вытесняет
+// и ответы по id всех задач того же типа. Точная инвалидация потребовала бы версий на каждый id
+// во всех менеджерах; ответ по id дёшев, а список, ради которого кэш и нужен, меняется при
+// любой записи в коллекцию. Размер ограничен суммой байт,
+// при переполнении вытесняются давно не запрошенные записи. Ответы больше maxEntryBytes
+// не кэшируются и по-прежнему отдаются потоком.
+public class ResponseCache {
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public record Stats(long hits, long misses, long evictions, int entries, long bytes) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private record Entry(long version, byte[] body) {
+    }
+
+    public ResponseCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Размер кэша не может быть отрицательным");
+        }
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = (int) Math.min(Integer.MAX_VALUE - 8, maxBytes / 4);
+    }
+
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    // Тело ответа для key, построенного на версии version, или null
+    public synchronized byte[] get(String key, long version) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version) {
+            hits++;
+            return entry.body();
+        }
+        if (entry != null) {
+            remove(key, entry);
+        }
+        misses++;
+        return null;
+    }
+
+    public synchronized void put(String key, long version, byte[] body) {
+        if (body.length > maxEntryBytes) return;
+        Entry previous = entries.get(key);
+        if (previous != null) {
+            // Параллельный запрос мог уже положить более новый ответ
+            if (previous.version() > version) return;
+            remove(key, previous);
+        }
+        entries.put(key, new Entry(version, body));
+        bytes += body.length;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().body().length;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), bytes);
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.remove(key);
+        bytes -= entry.body().length;
+    }
+}
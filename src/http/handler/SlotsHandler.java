@@ -0,0 +1,77 @@
+package http.handler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import http.adapter.DurationAdapter;
+import manager.task.TaskManager;
+import model.TaskType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// GET /slots?duration=PT1H&from=...&to=...[&limit=N] — свободные промежутки расписания,
+// куда помещается задача длительностью duration
+public class SlotsHandler extends BaseHttpHandler {
+    static final int DEFAULT_LIMIT = 10;
+
+    private final TaskManager manager;
+    private final Gson gson;
+    private final ResponseCache cache;
+
+    public SlotsHandler(TaskManager manager, Gson gson, ResponseCache cache, int compressionThreshold) {
+        super(compressionThreshold);
+        this.manager = manager;
+        this.gson = gson;
+        this.cache = cache;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            if ("GET".equals(exchange.getRequestMethod())) {
+                // Расписание составляют только задачи и подзадачи
+                long version = Math.max(manager.getVersion(TaskType.TASK), manager.getVersion(TaskType.SUBTASK));
+                String etag = etag(version);
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                Duration duration;
+                LocalDateTime from;
+                LocalDateTime to;
+                int limit;
+                try {
+                    duration = DurationAdapter.parse(required(params, "duration"));
+                    from = ListQuery.parseTime(required(params, "from"));
+                    to = ListQuery.parseTime(required(params, "to"));
+                    limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : DEFAULT_LIMIT;
+                    if (limit < 1 || limit > ListQuery.MAX_LIMIT) {
+                        throw new IllegalArgumentException("limit должен быть от 1 до " + ListQuery.MAX_LIMIT);
+                    }
+                    if (duration.isNegative() || duration.isZero() || from.isAfter(to)) {
+                        throw new IllegalArgumentException("Некорректные параметры поиска");
+                    }
+                } catch (IllegalArgumentException | JsonParseException e) {
+                    sendBadRequest(exchange);
+                    return;
+                }
+                if (sendNotModifiedIfMatches(exchange, etag)) return;
+                String key = "slots?" + exchange.getRequestURI().getQuery();
+                sendCachedJson(exchange, gson, cache, key, version, etag,
+                        () -> manager.findFreeSlots(duration, from, to, limit));
+            } else {
+                sendServerError(exchange);
+            }
+        } catch (Exception e) {
+            sendServerError(exchange);
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Не задан параметр " + name);
+        }
+        return value;
+    }
+}
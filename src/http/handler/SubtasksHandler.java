@@ -4,19 +4,23 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import manager.task.TaskManager;
 import model.Subtask;
+import model.TaskType;
 import manager.task.exception.NotFoundException;
 import manager.task.exception.IntersectionException;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Map;
 
 public class SubtasksHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
+    private final ResponseCache cache;
 
-    public SubtasksHandler(TaskManager manager, Gson gson) {
+    public SubtasksHandler(TaskManager manager, Gson gson, ResponseCache cache, int compressionThreshold) {
+        super(compressionThreshold);
         this.manager = manager;
         this.gson = gson;
+        this.cache = cache;
     }
 
     @Override
@@ -44,14 +48,31 @@ public class SubtasksHandler extends BaseHttpHandler {
     }
 
     private void handleGet(HttpExchange exchange, String query) throws IOException {
-        if (query == null) {
-            List<Subtask> subs = manager.getAllSubtasks();
-            sendText(exchange, gson.toJson(subs));
+        long version = manager.getVersion(TaskType.SUBTASK);
+        String etag = etag(version);
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (!params.containsKey("id")) {
+            ListQuery list;
+            int afterId;
+            try {
+                list = ListQuery.parse(params);
+                afterId = list.afterId();
+            } catch (IllegalArgumentException e) {
+                sendBadRequest(exchange);
+                return;
+            }
+            if (sendNotModifiedIfMatches(exchange, etag)) return;
+            String key = query == null ? "subtasks" : "subtasks?" + query;
+            sendCachedJson(exchange, gson, cache, key, version, etag, () -> list.paged()
+                    ? list.page(manager.getSubtasks(afterId, list.limit() + 1), ListQuery::idCursor)
+                    : list.all(manager.getAllSubtasks()));
         } else {
-            int id = parseId(query);
+            int id = Integer.parseInt(params.get("id"));
             try {
+                // Просмотр попадает в историю и при ответе 304
                 Subtask sub = manager.getSubtaskById(id);
-                sendText(exchange, gson.toJson(sub));
+                if (sendNotModifiedIfMatches(exchange, etag)) return;
+                sendCachedJson(exchange, gson, cache, "subtask:" + id, version, etag, () -> sub);
             } catch (NotFoundException e) {
                 sendNotFound(exchange);
             }
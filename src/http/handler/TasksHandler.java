@@ -4,19 +4,23 @@ import com.google.gson.Gson;
 import com.sun.net.httpserver.HttpExchange;
 import manager.task.TaskManager;
 import model.Task;
+import model.TaskType;
 import manager.task.exception.NotFoundException;
 import manager.task.exception.IntersectionException;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Map;
 
 public class TasksHandler extends BaseHttpHandler {
     private final TaskManager manager;
     private final Gson gson;
+    private final ResponseCache cache;
 
-    public TasksHandler(TaskManager manager, Gson gson) {
+    public TasksHandler(TaskManager manager, Gson gson, ResponseCache cache, int compressionThreshold) {
+        super(compressionThreshold);
         this.manager = manager;
         this.gson = gson;
+        this.cache = cache;
     }
 
     @Override
@@ -44,14 +48,31 @@ public class TasksHandler extends BaseHttpHandler {
     }
 
     private void handleGet(HttpExchange exchange, String query) throws IOException {
-        if (query == null) {
-            List<Task> tasks = manager.getAllTasks();
-            sendText(exchange, gson.toJson(tasks));
+        long version = manager.getVersion(TaskType.TASK);
+        String etag = etag(version);
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (!params.containsKey("id")) {
+            ListQuery list;
+            int afterId;
+            try {
+                list = ListQuery.parse(params);
+                afterId = list.afterId();
+            } catch (IllegalArgumentException e) {
+                sendBadRequest(exchange);
+                return;
+            }
+            if (sendNotModifiedIfMatches(exchange, etag)) return;
+            String key = query == null ? "tasks" : "tasks?" + query;
+            sendCachedJson(exchange, gson, cache, key, version, etag, () -> list.paged()
+                    ? list.page(manager.getTasks(afterId, list.limit() + 1), ListQuery::idCursor)
+                    : list.all(manager.getAllTasks()));
         } else {
-            int id = parseId(query);
+            int id = Integer.parseInt(params.get("id"));
             try {
+                // Просмотр попадает в историю и при ответе 304
                 Task task = manager.getTaskById(id);
-                sendText(exchange, gson.toJson(task));
+                if (sendNotModifiedIfMatches(exchange, etag)) return;
+                sendCachedJson(exchange, gson, cache, "task:" + id, version, etag, () -> task);
             } catch (NotFoundException e) {
                 sendNotFound(exchange);
             }
@@ -61,6 +82,12 @@ public class TasksHandler extends BaseHttpHandler {
     private void handlePost(HttpExchange exchange) throws IOException {
         String body = readRequestBody(exchange);
         Task task = gson.fromJson(body, Task.class);
+        // Адаптер для Task выбирает класс по полю "type"; эпик или подзадача в /tasks попали бы
+        // в хранилище задач и разошлись бы с расписанием и сохранённым файлом
+        if (task.getType() != TaskType.TASK) {
+            sendBadRequest(exchange);
+            return;
+        }
 
         try {
             if (task.getId() <= 0) {
@@ -0,0 +1,9 @@
+package manager.history;
+
+import model.Task;
+
+// Просмотр в истории. Номер просмотра растёт с каждым вызовом HistoryManager.add и вместе с id
+// задачи служит курсором страниц: повторный просмотр получает новый номер, поэтому курсор
+// не переезжает вместе с задачей в конец истории
+public record HistoryEntry(long view, Task task) {
+}
@@ -11,4 +11,10 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    // Не больше limit просмотров, сделанных после просмотра afterView задачи afterId. Если этот просмотр
+    // ещё в истории, страница продолжается сразу за ним; если задачу удалили или просмотрели снова —
+    // с первого более позднего просмотра. Так страницы не повторяются и не теряют записи.
+    // afterView = 0 — с начала истории
+    List<HistoryEntry> getHistory(int afterId, long afterView, int limit);
 }
\ No newline at end of file
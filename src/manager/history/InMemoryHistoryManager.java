@@ -1,16 +1,16 @@
 package manager.history;
 
 import model.Task;
+import util.IntHashMap;
 
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
 import java.util.List;
 
 public class InMemoryHistoryManager implements HistoryManager {
     private Node head;
     private Node tail;
-    private final Map<Integer, Node> nodes = new HashMap<>();
+    private final IntHashMap<Node> nodes = new IntHashMap<>();
+    private long lastView;
 
     @Override
     public void add(Task task) {
@@ -24,6 +24,7 @@ public class InMemoryHistoryManager implements HistoryManager {
     private void linkLast(Task task) {
         Node newNode = new Node();
         newNode.setValue(task);
+        newNode.setView(++lastView);
         newNode.setPrev(tail);
 
         if (tail != null) {
@@ -55,6 +56,29 @@ public class InMemoryHistoryManager implements HistoryManager {
         return result;
     }
 
+    @Override
+    public List<HistoryEntry> getHistory(int afterId, long afterView, int limit) {
+        List<HistoryEntry> result = new ArrayList<>();
+        Node after = nodes.get(afterId);
+        Node current;
+        if (after != null && after.getView() == afterView) {
+            current = after.getNext();
+        } else {
+            // Курсорного просмотра больше нет: номера в списке растут, ищем первый более поздний
+            current = head;
+            while (current != null && current.getView() <= afterView) {
+                current = current.getNext();
+            }
+        }
+
+        while (current != null && result.size() < limit) {
+            result.add(new HistoryEntry(current.getView(), current.getValue()));
+            current = current.getNext();
+        }
+
+        return result;
+    }
+
     private void removeNode(Node node) {
         if (node == null) return;
 
@@ -78,6 +102,7 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     private static class Node {
         private Task value;
+        private long view;
         private Node prev;
         private Node next;
 
@@ -97,6 +122,14 @@ public class InMemoryHistoryManager implements HistoryManager {
             this.value = value;
         }
 
+        public long getView() {
+            return view;
+        }
+
+        public void setView(long view) {
+            this.view = view;
+        }
+
         public void setPrev(Node prev) {
             this.prev = prev;
         }
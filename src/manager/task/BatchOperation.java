@@ -0,0 +1,44 @@
+package manager.task;
+
+import model.Task;
+import model.TaskType;
+
+// Операция пачки для TaskManager.applyAll. Для create и update тип берётся из объекта задачи.
+// epicId подзадачи в create может ссылаться на эпик, создаваемый раньше в той же пачке: epicRef(i)
+// указывает на эпик из операции с индексом i
+public record BatchOperation(Kind kind, TaskType type, Task task, int id) {
+    public enum Kind {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    public BatchOperation {
+        if (kind == null || type == null) {
+            throw new IllegalArgumentException("Не указан вид операции или тип задачи");
+        }
+        if (kind != Kind.DELETE && task == null) {
+            throw new IllegalArgumentException("Для " + kind + " нужна задача");
+        }
+        // update применяется по id задачи, поэтому расходящийся id операции проверялся бы не у той задачи
+        if (kind == Kind.UPDATE && id != task.getId()) {
+            throw new IllegalArgumentException("id операции " + id + " не совпадает с id задачи " + task.getId());
+        }
+    }
+
+    public static BatchOperation create(Task task) {
+        return new BatchOperation(Kind.CREATE, task.getType(), task, 0);
+    }
+
+    public static BatchOperation update(Task task) {
+        return new BatchOperation(Kind.UPDATE, task.getType(), task, task.getId());
+    }
+
+    public static BatchOperation delete(TaskType type, int id) {
+        return new BatchOperation(Kind.DELETE, type, null, id);
+    }
+
+    public static int epicRef(int index) {
+        return -(index + 1);
+    }
+}
@@ -0,0 +1,168 @@
+package manager.task;
+
+import manager.task.exception.ManagerSaveException;
+import model.*;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Читатель формата, описанного в BinarySnapshotWriter
+public class BinarySnapshotReader {
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final ByteBuffer buffer;
+    private boolean recordsFinished;
+
+    public BinarySnapshotReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        byte[] magic = new byte[BinarySnapshotWriter.MAGIC.length];
+        if (buffer.remaining() < magic.length + 1) {
+            throw new IllegalArgumentException("Ошибка чтения бинарного снимка: файл слишком короткий");
+        }
+        buffer.get(magic);
+        if (!Arrays.equals(magic, BinarySnapshotWriter.MAGIC)) {
+            throw new IllegalArgumentException("Ошибка чтения бинарного снимка: неизвестный формат");
+        }
+        int version = buffer.get();
+        if (version != BinarySnapshotWriter.VERSION) {
+            throw new IllegalArgumentException("Ошибка чтения бинарного снимка: неподдерживаемая версия " + version);
+        }
+    }
+
+    public static BinarySnapshotReader open(File file) {
+        try {
+            return new BinarySnapshotReader(ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла", e);
+        }
+    }
+
+    public static boolean isBinary(File file) {
+        if (file.length() < BinarySnapshotWriter.MAGIC.length) return false;
+        try (InputStream in = new FileInputStream(file)) {
+            return Arrays.equals(in.readNBytes(BinarySnapshotWriter.MAGIC.length), BinarySnapshotWriter.MAGIC);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла", e);
+        }
+    }
+
+    // Возвращает следующую задачу или null, если записи закончились
+    public Task next() {
+        if (recordsFinished) return null;
+        try {
+            int tag = buffer.get();
+            if (tag == BinarySnapshotWriter.END_OF_RECORDS) {
+                recordsFinished = true;
+                return null;
+            }
+            readVarLong();
+            return readBody(TYPES[tag - 1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Ошибка чтения бинарного снимка в позиции " + buffer.position(), e);
+        }
+    }
+
+    public List<Integer> readHistory() {
+        while (next() != null) {
+            // пропускаем оставшиеся записи
+        }
+        int count = (int) readVarLong();
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add((int) readVarLong());
+        }
+        return ids;
+    }
+
+    Task readBody(TaskType type) {
+        int id = (int) readVarLong();
+        int statusCode = (int) readVarLong();
+        Status status = statusCode == 0 ? null : STATUSES[statusCode - 1];
+        int epicId = type == TaskType.SUBTASK ? (int) readVarLong() : 0;
+        LocalDateTime startTime = readTime();
+        long durationCode = readVarLong();
+        Duration duration = durationCode == 0 ? null : Duration.ofMinutes(durationCode - 1);
+        LocalDateTime endTime = type == TaskType.EPIC ? readTime() : null;
+        String name = readString();
+        String description = readString();
+
+        Task task = switch (type) {
+            case TASK -> new Task(name, description, status, startTime, duration);
+            case EPIC -> {
+                Epic epic = new Epic(name, description);
+                epic.setStatus(status);
+                epic.setStartTime(startTime);
+                epic.setDuration(duration);
+                epic.setEndTime(endTime);
+                yield epic;
+            }
+            case SUBTASK -> new Subtask(name, description, status, epicId, startTime, duration);
+        };
+        task.setId(id);
+        return task;
+    }
+
+    // Разбирает запись, начинающуюся с тега в указанной позиции
+    Task readAt(int position) {
+        buffer.position(position);
+        try {
+            int tag = buffer.get();
+            readVarLong();
+            return readBody(TYPES[tag - 1]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Ошибка чтения бинарного снимка в позиции " + position, e);
+        }
+    }
+
+    long readVarLong() {
+        return readVarLong(buffer);
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return result;
+    }
+
+    private LocalDateTime readTime() {
+        long encoded = readVarLong();
+        if (encoded == 0) return null;
+        encoded--;
+        long zigzag = encoded >>> 1;
+        long minute = (zigzag >>> 1) ^ -(zigzag & 1);
+        long nanosOfMinute = (encoded & 1) != 0 ? readVarLong() : 0;
+        long epochSecond = minute * 60 + nanosOfMinute / 1_000_000_000L;
+        return LocalDateTime.ofEpochSecond(epochSecond, (int) (nanosOfMinute % 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    private String readString() {
+        int length = (int) readVarLong() - 1;
+        if (length < 0) return null;
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+}
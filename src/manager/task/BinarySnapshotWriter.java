@@ -0,0 +1,124 @@
+package manager.task;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+// Бинарный снимок, версия 1:
+//   магия "KBSN", байт версии;
+//   записи: тег (TaskType.ordinal() + 1), длина тела (varint), тело;
+//   тег 0 завершает записи, за ним число id истории и сами id (varint).
+// Тело записи: id, статус (ordinal + 1, 0 — null), epicId (только у подзадач), начало,
+// продолжительность в минутах (+1, 0 — null), окончание (только у эпиков), название, описание.
+// Время — минуты от эпохи (zigzag) со сдвигом на флаг «есть секунды/наносекунды» и +1, 0 — null;
+// при установленном флаге следом идут наносекунды внутри минуты.
+// Строки — длина UTF-8 + 1 (0 — null) и байты.
+public class BinarySnapshotWriter implements Closeable {
+    static final byte[] MAGIC = {'K', 'B', 'S', 'N'};
+    static final int VERSION = 1;
+    static final int END_OF_RECORDS = 0;
+
+    private final OutputStream out;
+    private byte[] body = new byte[256];
+    private int bodyLength;
+
+    public BinarySnapshotWriter(OutputStream out) throws IOException {
+        this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, 1 << 16);
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+    }
+
+    public void write(Task task) throws IOException {
+        bodyLength = 0;
+        putVarLong(task.getId());
+        putVarLong(task.getStatus() == null ? 0 : task.getStatus().ordinal() + 1);
+        if (task instanceof Subtask subtask) {
+            putVarLong(subtask.getEpicId());
+        }
+        putTime(task.getStartTime());
+        putVarLong(task.getDuration() == null ? 0 : task.getDuration().toMinutes() + 1);
+        if (task instanceof Epic) {
+            putTime(task.getEndTime());
+        }
+        putString(task.getName());
+        putString(task.getDescription());
+
+        out.write(task.getType().ordinal() + 1);
+        writeVarLong(out, bodyLength);
+        out.write(body, 0, bodyLength);
+    }
+
+    public void writeHistory(List<Integer> ids) throws IOException {
+        out.write(END_OF_RECORDS);
+        writeVarLong(out, ids.size());
+        for (int id : ids) {
+            writeVarLong(out, id);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void putTime(LocalDateTime time) {
+        if (time == null) {
+            putVarLong(0);
+            return;
+        }
+        long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+        long minute = Math.floorDiv(epochSecond, 60);
+        long nanosOfMinute = Math.floorMod(epochSecond, 60) * 1_000_000_000L + time.getNano();
+        long zigzag = (minute << 1) ^ (minute >> 63);
+        putVarLong(((zigzag << 1) | (nanosOfMinute != 0 ? 1 : 0)) + 1);
+        if (nanosOfMinute != 0) {
+            putVarLong(nanosOfMinute);
+        }
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            putVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(bytes.length + 1L);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, body, bodyLength, bytes.length);
+        bodyLength += bytes.length;
+    }
+
+    private void putVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            body[bodyLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        body[bodyLength++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (bodyLength + extra > body.length) {
+            body = Arrays.copyOf(body, Math.max(body.length * 2, bodyLength + extra));
+        }
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -3,16 +3,23 @@ package manager.task;
 import manager.history.HistoryManager;
 import model.*;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class CSVFormatter {
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
 
     public static String getHeader() {
         return "id,type,name,status,description,epic,startTime,duration,endTime";
@@ -41,112 +48,286 @@ public class CSVFormatter {
     }
 
     public static String toString(Task task) {
-        String epicId = "";
-        if (task instanceof Subtask subtask) {
-            epicId = String.valueOf(subtask.getEpicId());
+        StringBuilder builder = new StringBuilder(96);
+        try {
+            write(task, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return builder.toString();
+    }
 
-        String startTime = task.getStartTime() == null ? "" : task.getStartTime().format(DATE_TIME_FORMATTER);
-        String duration = task.getDuration() == null ? "" : String.valueOf(task.getDuration().toMinutes());
-        String endTime = task.getEndTime() == null ? "" : task.getEndTime().format(DATE_TIME_FORMATTER);
-
-        return String.format("%d,%s,%s,%s,%s,%s,%s,%s,%s",
-                task.getId(),
-                task.getType(),
-                task.getName(),
-                task.getStatus(),
-                task.getDescription(),
-                epicId,
-                startTime,
-                duration,
-                endTime);
+    // Пишет строку задачи без перевода строки прямо в out, без промежуточных строк
+    public static void write(Task task, Appendable out) throws IOException {
+        appendInt(out, task.getId());
+        out.append(',').append(task.getType().name()).append(',');
+        appendField(out, task.getName());
+        out.append(',').append(String.valueOf(task.getStatus())).append(',');
+        appendField(out, task.getDescription());
+        out.append(',');
+        if (task instanceof Subtask subtask) {
+            appendInt(out, subtask.getEpicId());
+        }
+        out.append(',');
+        appendDateTime(out, task.getStartTime());
+        out.append(',');
+        if (task.getDuration() != null) {
+            appendLong(out, task.getDuration().toMinutes());
+        }
+        out.append(',');
+        appendDateTime(out, task.getEndTime());
     }
 
     public static Task fromString(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Ошибка парсинга строки: '" + value + "'",
+                    new IllegalArgumentException("Пустая строка"));
+        }
         try {
-            if (value == null || value.trim().isEmpty()) {
-                throw new IllegalArgumentException("Пустая строка");
-            }
+            CSVRowReader row = new CSVRowReader(new StringReader(value));
+            row.next();
+            return fromRow(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ошибка парсинга строки: '" + value + "'", e);
+        }
+    }
+
+    public static Task fromRow(CSVRowReader row) {
+        if (row.size() < 9) {
+            throw new IllegalArgumentException(
+                    String.format("Недостаточно полей (ожидалось 9, получили %d)", row.size())
+            );
+        }
+
+        int id = parseIntField(row, 0, "id");
+        TaskType type = parseEnumField(row, 1, TYPES, TaskType.class, "type");
+        String name = row.get(2);
+        Status status = parseEnumField(row, 3, STATUSES, Status.class, "status");
+        String description = row.get(4);
 
-            String[] fields = value.split(",", -1);
+        LocalDateTime startTime = parseDateTime(row, 6);
+        Duration duration = parseDuration(row, 7);
+        LocalDateTime endTime = parseDateTime(row, 8);
 
-            if (fields.length < 9) {
-                throw new IllegalArgumentException(
-                        String.format("Недостаточно полей (ожидалось 9, получили %d)", fields.length)
-                );
+        return switch (type) {
+            case TASK -> {
+                Task task = new Task(name, description, status, startTime, duration);
+                task.setId(id);
+                task.setEndTime(endTime);
+                yield task;
+            }
+            case EPIC -> {
+                Epic epic = new Epic(name, description);
+                epic.setId(id);
+                epic.setStatus(status);
+                epic.setStartTime(startTime);
+                epic.setDuration(duration);
+                epic.setEndTime(endTime);
+                yield epic;
+            }
+            case SUBTASK -> {
+                if (row.length(5) == 0) {
+                    throw new IllegalArgumentException("Для подзадачи не указан epicId");
+                }
+                int epicId = parseIntField(row, 5, "epicId");
+                Subtask subtask = new Subtask(name, description, status, epicId, startTime, duration);
+                subtask.setId(id);
+                subtask.setEndTime(endTime);
+                yield subtask;
             }
+        };
+    }
 
+    public static List<Integer> historyFromRow(CSVRowReader row) {
+        List<Integer> ids = new ArrayList<>(row.size());
+        for (int i = 0; i < row.size(); i++) {
+            if (row.length(i) > 0) {
+                ids.add(parseIntField(row, i, "historyId"));
+            }
+        }
+        return ids;
+    }
 
-            int id = parseIntField(fields[0], "id");
-            TaskType type = parseEnumField(fields[1], TaskType.class, "type");
-            String name = fields[2].trim();
-            Status status = parseEnumField(fields[3], Status.class, "status");
-            String description = fields[4].trim();
+    private static void appendField(Appendable out, String value) throws IOException {
+        if (value == null || !needsQuotes(value)) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
 
+    // Поля без кавычек при чтении обрезаются, поэтому пробелы по краям тоже требуют кавычек
+    private static boolean needsQuotes(String value) {
+        if (value.isEmpty()) return false;
+        if (value.charAt(0) <= ' ' || value.charAt(value.length() - 1) <= ' ') return true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
 
-            LocalDateTime startTime = parseDateTime(fields[6]);
-            Duration duration = parseDuration(fields[7]);
-            LocalDateTime endTime = parseDateTime(fields[8]);
+    private static void appendDateTime(Appendable out, LocalDateTime value) throws IOException {
+        if (value == null) return;
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            out.append(value.format(DATE_TIME_FORMATTER));
+            return;
+        }
+        appendPadded(out, value.getYear(), 4);
+        out.append('-');
+        appendPadded(out, value.getMonthValue(), 2);
+        out.append('-');
+        appendPadded(out, value.getDayOfMonth(), 2);
+        out.append('T');
+        appendPadded(out, value.getHour(), 2);
+        out.append(':');
+        appendPadded(out, value.getMinute(), 2);
+        out.append(':');
+        appendPadded(out, value.getSecond(), 2);
+        int nano = value.getNano();
+        if (nano > 0) {
+            out.append('.');
+            for (int divisor = 100_000_000; nano > 0; divisor /= 10) {
+                out.append((char) ('0' + nano / divisor));
+                nano %= divisor;
+            }
+        }
+    }
 
+    private static void appendPadded(Appendable out, int value, int width) throws IOException {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
 
-            return switch (type) {
-                case TASK -> {
-                    Task task = new Task(name, description, status, startTime, duration);
-                    task.setId(id);
-                    task.setEndTime(endTime);
-                    yield task;
-                }
-                case EPIC -> {
-                    Epic epic = new Epic(name, description);
-                    epic.setId(id);
-                    epic.setStatus(status);
-                    epic.setStartTime(startTime);
-                    epic.setDuration(duration);
-                    epic.setEndTime(endTime);
-                    yield epic;
-                }
-                case SUBTASK -> {
-                    int epicId = parseEpicId(fields[5]);
-                    Subtask subtask = new Subtask(name, description, status, epicId, startTime, duration);
-                    subtask.setId(id);
-                    subtask.setEndTime(endTime);
-                    yield subtask;
+    private static void appendInt(Appendable out, int value) throws IOException {
+        appendLong(out, value);
+    }
+
+    private static void appendLong(Appendable out, long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.append(String.valueOf(value));
+                return;
+            }
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) divisor *= 10;
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static LocalDateTime parseDateTime(CSVRowReader row, int field) {
+        int length = row.length(field);
+        if (length == 0) {
+            return null;
+        }
+        // Быстрый путь для yyyy-MM-ddTHH:mm[:ss]; остальное разбирает DateTimeFormatter
+        if ((length == 16 || length == 19) && row.charAt(field, 4) == '-' && row.charAt(field, 7) == '-'
+                && row.charAt(field, 10) == 'T' && row.charAt(field, 13) == ':'
+                && (length == 16 || row.charAt(field, 16) == ':')) {
+            int year = digits(row, field, 0, 4);
+            int month = digits(row, field, 5, 2);
+            int day = digits(row, field, 8, 2);
+            int hour = digits(row, field, 11, 2);
+            int minute = digits(row, field, 14, 2);
+            int second = length == 19 ? digits(row, field, 17, 2) : 0;
+            if ((year | month | day | hour | minute | second) >= 0) {
+                try {
+                    return LocalDateTime.of(year, month, day, hour, minute, second);
+                } catch (DateTimeException e) {
+                    // сообщение об ошибке сформирует общий разбор ниже
                 }
-            };
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Ошибка парсинга строки: '" + value + "'", e);
+            }
         }
+        return parseDateTime(row.get(field));
     }
 
-    private static int parseEpicId(String value) {
-        if (value == null || value.isBlank()) {
-            throw new IllegalArgumentException("Для подзадачи не указан epicId");
+    private static int digits(CSVRowReader row, int field, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = row.charAt(field, i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
         }
-        return parseIntField(value, "epicId");
+        return value;
     }
 
-    private static LocalDateTime parseDateTime(String value) {
-        if (value == null || value.isBlank()) {
+    private static Duration parseDuration(CSVRowReader row, int field) {
+        if (row.length(field) == 0) {
             return null;
         }
         try {
-            return LocalDateTime.parse(value.trim(), DATE_TIME_FORMATTER);
-        } catch (DateTimeParseException e) {
+            return Duration.ofMinutes(parseLong(row, field));
+        } catch (NumberFormatException e) {
             throw new IllegalArgumentException(
-                    String.format("Некорректный формат даты: '%s' (ожидается yyyy-MM-ddTHH:mm)", value), e);
+                    String.format("Некорректная продолжительность: '%s' (ожидается число минут)", row.get(field)), e);
+        }
+    }
+
+    private static int parseIntField(CSVRowReader row, int field, String fieldName) {
+        try {
+            long value = parseLong(row, field);
+            if (value != (int) value) {
+                throw new NumberFormatException("Значение вне диапазона int");
+            }
+            return (int) value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    String.format("Некорректное значение поля %s: '%s' (ожидается целое число)",
+                            fieldName, row.get(field)), e);
+        }
+    }
+
+    private static long parseLong(CSVRowReader row, int field) {
+        int length = row.length(field);
+        int i = 0;
+        boolean negative = length > 0 && row.charAt(field, 0) == '-';
+        if (negative || length > 0 && row.charAt(field, 0) == '+') i++;
+        if (i == length || length - i > 18) {
+            return Long.parseLong(row.get(field));
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            char c = row.charAt(field, i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Некорректное число: '" + row.get(field) + "'");
+            }
+            value = value * 10 + (c - '0');
         }
+        return negative ? -value : value;
     }
 
-    private static Duration parseDuration(String value) {
+    private static <E extends Enum<E>> E parseEnumField(CSVRowReader row, int field, E[] values,
+                                                        Class<E> enumClass, String fieldName) {
+        for (E constant : values) {
+            if (row.contentEquals(field, constant.name())) {
+                return constant;
+            }
+        }
+        return parseEnumField(row.get(field), enumClass, fieldName);
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
         if (value == null || value.isBlank()) {
             return null;
         }
         try {
-            long minutes = Long.parseLong(value.trim());
-            return Duration.ofMinutes(minutes);
-        } catch (NumberFormatException e) {
+            return LocalDateTime.parse(value.trim(), DATE_TIME_FORMATTER);
+        } catch (DateTimeParseException e) {
             throw new IllegalArgumentException(
-                    String.format("Некорректная продолжительность: '%s' (ожидается число минут)", value), e);
+                    String.format("Некорректный формат даты: '%s' (ожидается yyyy-MM-ddTHH:mm)", value), e);
         }
     }
 
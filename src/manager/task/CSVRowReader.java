@@ -0,0 +1,153 @@
+package manager.task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+// Потоковое чтение CSV по строкам (RFC 4180): поля в кавычках могут содержать запятые,
+// переводы строк и удвоенные кавычки. Поля без кавычек обрезаются по краям, как и раньше.
+// Символы строки копируются в один переиспользуемый буфер, строки создаются только по запросу get().
+public class CSVRowReader implements Closeable {
+    private static final int NO_PUSHBACK = -2;
+
+    private final Reader reader;
+    private final char[] input = new char[8192];
+    private int inputPosition;
+    private int inputLimit;
+    private int pushback = NO_PUSHBACK;
+
+    private char[] row = new char[256];
+    private int rowLength;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int size;
+
+    public CSVRowReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Читает следующую строку; false — достигнут конец данных
+    public boolean next() throws IOException {
+        rowLength = 0;
+        size = 0;
+        int c = read();
+        if (c < 0) return false;
+        while (true) {
+            int start = rowLength;
+            int end;
+            if (c == '"') {
+                while (true) {
+                    c = read();
+                    if (c < 0) {
+                        throw new IllegalArgumentException("Незакрытая кавычка в CSV");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') break;
+                    }
+                    append((char) c);
+                }
+                end = rowLength;
+                while (c == ' ' || c == '\t') {
+                    c = read();
+                }
+                if (c >= 0 && c != ',' && c != '\n' && c != '\r') {
+                    throw new IllegalArgumentException("Лишние символы после закрывающей кавычки в CSV");
+                }
+            } else {
+                while (c >= 0 && c != ',' && c != '\n' && c != '\r') {
+                    append((char) c);
+                    c = read();
+                }
+                end = rowLength;
+                while (start < end && row[start] <= ' ') start++;
+                while (end > start && row[end - 1] <= ' ') end--;
+            }
+            addField(start, end);
+            if (c != ',') break;
+            c = read();
+        }
+        if (c == '\r') {
+            int following = read();
+            if (following != '\n' && following >= 0) {
+                pushback = following;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isBlank() {
+        return size == 1 && starts[0] == ends[0];
+    }
+
+    public int length(int field) {
+        return ends[field] - starts[field];
+    }
+
+    public char charAt(int field, int index) {
+        return row[starts[field] + index];
+    }
+
+    public String get(int field) {
+        return new String(row, starts[field], ends[field] - starts[field]);
+    }
+
+    public boolean contentEquals(int field, String value) {
+        int length = length(field);
+        if (length != value.length()) return false;
+        int start = starts[field];
+        for (int i = 0; i < length; i++) {
+            if (row[start + i] != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        if (pushback != NO_PUSHBACK) {
+            int c = pushback;
+            pushback = NO_PUSHBACK;
+            return c;
+        }
+        if (inputPosition == inputLimit) {
+            inputLimit = reader.read(input, 0, input.length);
+            inputPosition = 0;
+            if (inputLimit <= 0) {
+                inputLimit = 0;
+                return -1;
+            }
+        }
+        return input[inputPosition++];
+    }
+
+    private void append(char c) {
+        if (rowLength == row.length) {
+            char[] grown = new char[row.length * 2];
+            System.arraycopy(row, 0, grown, 0, rowLength);
+            row = grown;
+        }
+        row[rowLength++] = c;
+    }
+
+    private void addField(int start, int end) {
+        if (size == starts.length) {
+            int[] grownStarts = new int[size * 2];
+            int[] grownEnds = new int[size * 2];
+            System.arraycopy(starts, 0, grownStarts, 0, size);
+            System.arraycopy(ends, 0, grownEnds, 0, size);
+            starts = grownStarts;
+            ends = grownEnds;
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+}
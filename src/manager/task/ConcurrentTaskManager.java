@@ -0,0 +1,549 @@
+package manager.task;
+
+import manager.Managers;
+import manager.history.HistoryEntry;
+import manager.history.HistoryManager;
+import manager.task.exception.IntersectionException;
+import manager.task.exception.NotFoundException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import model.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Менеджер для многопоточного использования.
+// Эпик и его подзадачи защищены одной из STRIPES блокировок, выбираемой по id эпика,
+// поэтому изменения в разных эпиках идут параллельно. Расписание (prioritizedTasks и timeIndex)
+// общее для всех задач и защищено scheduleLock: проверка пересечения и вставка выполняются атомарно.
+// Порядок захвата: блокировка эпика -> scheduleLock -> historyManager. Массовые операции
+// захватывают все блокировки эпиков по возрастанию номера.
+// Опубликованный эпик не меняется: запись собирает копию под блокировкой эпика и заменяет её в карте,
+// поэтому читатели без блокировки видят эпик целиком до изменения или после.
+public class ConcurrentTaskManager implements TaskManager {
+    private static final int STRIPES = 64;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    // Упорядочены по id для постраничного чтения без блокировок и копирования
+    private final ConcurrentNavigableMap<Integer, Task> tasks = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<Integer, Epic> epics = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<Integer, Subtask> subtasks = new ConcurrentSkipListMap<>();
+    private final Map<Integer, EpicRollup> epicRollups = new ConcurrentHashMap<>();
+    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLongArray versions = new AtomicLongArray(TaskType.values().length);
+
+    private final ReentrantLock[] epicLocks = new ReentrantLock[STRIPES];
+    private final Object scheduleLock = new Object();
+    private final TreeSet<Task> prioritizedTasks = new TreeSet<>(
+            Comparator.comparing(Task::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(Task::getId));
+    private final TaskIntervalTree timeIndex = new TaskIntervalTree();
+
+    public ConcurrentTaskManager() {
+        for (int i = 0; i < STRIPES; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    private ReentrantLock lockFor(int epicId) {
+        return epicLocks[Math.floorMod(epicId, STRIPES)];
+    }
+
+    private void lockAllEpics() {
+        for (ReentrantLock lock : epicLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAllEpics() {
+        for (int i = STRIPES - 1; i >= 0; i--) {
+            epicLocks[i].unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        synchronized (scheduleLock) {
+            return new ArrayList<>(prioritizedTasks);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        synchronized (historyManager) {
+            return historyManager.getHistory();
+        }
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return InMemoryTaskManager.page(tasks, afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return InMemoryTaskManager.page(epics, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return InMemoryTaskManager.page(subtasks, afterId, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(Task after, int limit) {
+        synchronized (scheduleLock) {
+            return InMemoryTaskManager.take(
+                    after == null ? prioritizedTasks : prioritizedTasks.tailSet(after, false), limit);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to) {
+        synchronized (scheduleLock) {
+            return timeIndex.findInWindow(from, to);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to, Task after, int limit) {
+        synchronized (scheduleLock) {
+            return TaskIntervalTree.windowPage(from, to, after, limit, prioritizedTasks.comparator(),
+                    prioritizedTasks::lower, key -> prioritizedTasks.tailSet(key, false).iterator());
+        }
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to, int limit) {
+        synchronized (scheduleLock) {
+            Task before = from == null ? null : FreeSlotFinder.lastScheduledBefore(from, prioritizedTasks::lower);
+            return FreeSlotFinder.find(before, prioritizedTasks.tailSet(FreeSlotFinder.probe(from), true).iterator(),
+                    duration, from, to, limit);
+        }
+    }
+
+    @Override
+    public List<HistoryEntry> getHistory(int afterId, long afterView, int limit) {
+        synchronized (historyManager) {
+            return historyManager.getHistory(afterId, afterView, limit);
+        }
+    }
+
+    // Пачка держит все блокировки эпиков и расписания, поэтому проверка и применение не перемежаются
+    // с другими записями. Читатели без блокировок могут увидеть пачку применённой частично
+    @Override
+    public void applyAll(List<BatchOperation> operations) {
+        lockAllEpics();
+        try {
+            synchronized (scheduleLock) {
+                TaskBatch.validate(operations, new TaskBatch.State(tasks::get, epics::get, subtasks::get,
+                        timeIndex::findIntersecting));
+                TaskBatch.apply(operations, this);
+            }
+        } finally {
+            unlockAllEpics();
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            throw new NotFoundException("Задача с id " + id + " не найдена");
+        }
+        addToHistory(tasks, task);
+        return task;
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        Epic epic = epics.get(id);
+        if (epic == null) {
+            throw new NotFoundException("Эпик с id " + id + " не найден");
+        }
+        addToHistory(epics, epic);
+        return epic;
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask == null) {
+            throw new NotFoundException("Подзадача с id " + id + " не найдена");
+        }
+        addToHistory(subtasks, subtask);
+        return subtask;
+    }
+
+    @Override
+    public void createTask(Task task) {
+        task.setId(nextId.getAndIncrement());
+        synchronized (scheduleLock) {
+            if (timeIndex.hasIntersection(task)) {
+                throw new IntersectionException();
+            }
+            tasks.put(task.getId(), task);
+            addPrioritized(task);
+        }
+        touch(TaskType.TASK);
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        epic.setId(nextId.getAndIncrement());
+        epics.put(epic.getId(), epic);
+        touch(TaskType.EPIC);
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        ReentrantLock lock = lockFor(subtask.getEpicId());
+        lock.lock();
+        try {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                throw new NotFoundException("Эпик с id " + subtask.getEpicId() + " не найден");
+            }
+            subtask.setId(nextId.getAndIncrement());
+            synchronized (scheduleLock) {
+                if (timeIndex.hasIntersection(subtask)) {
+                    throw new IntersectionException();
+                }
+                subtasks.put(subtask.getId(), subtask);
+                addPrioritized(subtask);
+            }
+            Epic updated = copyOf(epic);
+            updated.addSubtaskId(subtask.getId());
+            epicRollups.computeIfAbsent(epic.getId(), id -> new EpicRollup()).add(subtask);
+            refreshEpic(updated);
+            epics.put(updated.getId(), updated);
+            touch(TaskType.SUBTASK);
+            touch(TaskType.EPIC);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        synchronized (scheduleLock) {
+            Task old = tasks.get(task.getId());
+            if (old == null) {
+                throw new NotFoundException("Задача с id " + task.getId() + " не найдена");
+            }
+            if (timeIndex.hasIntersection(task)) {
+                throw new IntersectionException();
+            }
+            removePrioritized(old);
+            tasks.put(task.getId(), task);
+            addPrioritized(task);
+        }
+        touch(TaskType.TASK);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            Epic stored = epics.get(epic.getId());
+            if (stored == null) {
+                throw new NotFoundException("Эпик с id " + epic.getId() + " не найден");
+            }
+            Epic updated = copyOf(stored);
+            updated.setName(epic.getName());
+            updated.setDescription(epic.getDescription());
+            refreshEpic(updated);
+            epics.put(updated.getId(), updated);
+            touch(TaskType.EPIC);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        ReentrantLock lock = lockForSubtask(subtask.getId());
+        if (lock == null) {
+            throw new NotFoundException("Подзадача с id " + subtask.getId() + " не найдена");
+        }
+        try {
+            Subtask old = subtasks.get(subtask.getId());
+            // Подзадача защищена блокировкой своего эпика, перенос в другой эпик её бы обошёл
+            if (subtask.getEpicId() != old.getEpicId()) {
+                throw new IllegalArgumentException("Подзадачу нельзя перенести в другой эпик");
+            }
+            synchronized (scheduleLock) {
+                if (timeIndex.hasIntersection(subtask)) {
+                    throw new IntersectionException();
+                }
+                removePrioritized(old);
+                subtasks.put(subtask.getId(), subtask);
+                addPrioritized(subtask);
+            }
+            EpicRollup rollup = epicRollups.get(subtask.getEpicId());
+            if (rollup != null) {
+                rollup.add(subtask);
+            }
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                Epic updated = copyOf(epic);
+                refreshEpic(updated);
+                epics.put(updated.getId(), updated);
+            }
+            touch(TaskType.SUBTASK);
+            touch(TaskType.EPIC);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        Task removed;
+        synchronized (scheduleLock) {
+            removed = tasks.remove(id);
+            if (removed != null) {
+                removePrioritized(removed);
+            }
+        }
+        if (removed != null) {
+            removeFromHistory(id);
+            touch(TaskType.TASK);
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Epic removed = epics.remove(id);
+            if (removed == null) return;
+            epicRollups.remove(id);
+            for (int sid : removed.getSubtaskIds()) {
+                Subtask subtask;
+                synchronized (scheduleLock) {
+                    subtask = subtasks.remove(sid);
+                    if (subtask != null) {
+                        removePrioritized(subtask);
+                    }
+                }
+                if (subtask != null) {
+                    removeFromHistory(sid);
+                }
+            }
+            removeFromHistory(id);
+            touch(TaskType.EPIC);
+            touch(TaskType.SUBTASK);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        ReentrantLock lock = lockForSubtask(id);
+        if (lock == null) return;
+        try {
+            Subtask removed;
+            synchronized (scheduleLock) {
+                removed = subtasks.remove(id);
+                removePrioritized(removed);
+            }
+            Epic epic = epics.get(removed.getEpicId());
+            if (epic != null) {
+                Epic updated = copyOf(epic);
+                updated.removeSubtaskId(id);
+                EpicRollup rollup = epicRollups.get(epic.getId());
+                if (rollup != null) rollup.remove(id);
+                refreshEpic(updated);
+                epics.put(updated.getId(), updated);
+            }
+            removeFromHistory(id);
+            touch(TaskType.SUBTASK);
+            touch(TaskType.EPIC);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clearTasks() {
+        List<Integer> removed;
+        synchronized (scheduleLock) {
+            removed = new ArrayList<>(tasks.keySet());
+            removed.forEach(timeIndex::remove);
+            prioritizedTasks.removeIf(t -> !(t instanceof Subtask));
+            tasks.clear();
+        }
+        removed.forEach(this::removeFromHistory);
+        touch(TaskType.TASK);
+    }
+
+    @Override
+    public void clearEpics() {
+        lockAllEpics();
+        try {
+            List<Integer> removed = new ArrayList<>(epics.keySet());
+            synchronized (scheduleLock) {
+                removed.addAll(subtasks.keySet());
+                subtasks.keySet().forEach(timeIndex::remove);
+                prioritizedTasks.removeIf(t -> t instanceof Subtask);
+                subtasks.clear();
+            }
+            epics.clear();
+            epicRollups.clear();
+            removed.forEach(this::removeFromHistory);
+            touch(TaskType.EPIC);
+            touch(TaskType.SUBTASK);
+        } finally {
+            unlockAllEpics();
+        }
+    }
+
+    @Override
+    public void clearSubtasks() {
+        lockAllEpics();
+        try {
+            List<Integer> removed;
+            synchronized (scheduleLock) {
+                removed = new ArrayList<>(subtasks.keySet());
+                removed.forEach(timeIndex::remove);
+                prioritizedTasks.removeIf(t -> t instanceof Subtask);
+                subtasks.clear();
+            }
+            epicRollups.clear();
+            epics.replaceAll((id, epic) -> {
+                Epic updated = copyOf(epic);
+                updated.getSubtaskIds().clear();
+                refreshEpic(updated);
+                return updated;
+            });
+            removed.forEach(this::removeFromHistory);
+            touch(TaskType.SUBTASK);
+            touch(TaskType.EPIC);
+        } finally {
+            unlockAllEpics();
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return new ArrayList<>(tasks.values());
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return new ArrayList<>(epics.values());
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return new ArrayList<>(subtasks.values());
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                throw new NotFoundException("Эпик с id " + epicId + " не найден");
+            }
+            List<Subtask> result = new ArrayList<>();
+            for (Integer sid : epic.getSubtaskIds()) {
+                Subtask subtask = subtasks.get(sid);
+                if (subtask != null) result.add(subtask);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public long getVersion(TaskType type) {
+        return versions.get(type.ordinal());
+    }
+
+    // Вызывается после того, как изменение стало видно: кто прочитал версию, увидит данные не старше неё
+    private void touch(TaskType type) {
+        versions.accumulateAndGet(type.ordinal(), version.incrementAndGet(), Math::max);
+    }
+
+    // Захватывает блокировку эпика, которому принадлежит подзадача, или возвращает null,
+    // если подзадачи нет. Между чтением и захватом подзадачу могли удалить — тогда проверяем заново
+    private ReentrantLock lockForSubtask(int id) {
+        while (true) {
+            Subtask current = subtasks.get(id);
+            if (current == null) return null;
+            ReentrantLock lock = lockFor(current.getEpicId());
+            lock.lock();
+            if (subtasks.get(id) == current) {
+                return lock;
+            }
+            lock.unlock();
+        }
+    }
+
+    private void refreshEpic(Epic epic) {
+        List<Integer> ids = epic.getSubtaskIds();
+        Subtask first = ids.isEmpty() ? null : subtasks.get(ids.getFirst());
+        EpicRollup.apply(epicRollups.get(epic.getId()), epic, first);
+    }
+
+    private static Epic copyOf(Epic epic) {
+        Epic copy = new Epic(epic.getName(), epic.getDescription());
+        copy.setId(epic.getId());
+        copy.setStatus(epic.getStatus());
+        copy.setStartTime(epic.getStartTime());
+        copy.setDuration(epic.getDuration());
+        copy.setEndTime(epic.getEndTime());
+        copy.getSubtaskIds().addAll(epic.getSubtaskIds());
+        return copy;
+    }
+
+    private void addPrioritized(Task task) {
+        prioritizedTasks.add(task);
+        timeIndex.add(task);
+    }
+
+    private void removePrioritized(Task task) {
+        prioritizedTasks.remove(task);
+        timeIndex.remove(task.getId());
+    }
+
+    // Удаление сначала убирает задачу из карты, затем из истории, поэтому проверка под блокировкой
+    // истории не даёт вернуть в историю задачу, удалённую параллельно
+    private void addToHistory(Map<Integer, ? extends Task> source, Task task) {
+        synchronized (historyManager) {
+            if (source.get(task.getId()) == task) {
+                historyManager.add(task);
+            }
+        }
+    }
+
+    private void removeFromHistory(int id) {
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package manager.task;
+
+public enum Durability {
+    EVERY_OP,
+    BATCHED,
+    NONE
+}
@@ -0,0 +1,109 @@
+package manager.task;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import util.IntHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.TreeMap;
+
+// Агрегаты по подзадачам одного эпика: счётчики статусов, суммарная продолжительность
+// и мультимножества начал и окончаний. Значения подзадачи запоминаются при добавлении,
+// поэтому удаление корректно даже если объект подзадачи успели изменить.
+class EpicRollup {
+    private final IntHashMap<Entry> entries = new IntHashMap<>();
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+    private int newCount;
+    private int doneCount;
+    private Duration totalDuration = Duration.ZERO;
+
+    void add(Subtask subtask) {
+        remove(subtask.getId());
+        Entry entry = new Entry(subtask.getStatus(), subtask.getStartTime(), subtask.getEndTime(),
+                subtask.getDuration());
+        entries.put(subtask.getId(), entry);
+        if (entry.status() == Status.NEW) newCount++;
+        if (entry.status() == Status.DONE) doneCount++;
+        if (entry.isTimed()) {
+            starts.merge(entry.start(), 1, Integer::sum);
+            ends.merge(entry.end(), 1, Integer::sum);
+            totalDuration = totalDuration.plus(entry.duration());
+        }
+    }
+
+    void remove(int subtaskId) {
+        Entry entry = entries.remove(subtaskId);
+        if (entry == null) return;
+        if (entry.status() == Status.NEW) newCount--;
+        if (entry.status() == Status.DONE) doneCount--;
+        if (entry.isTimed()) {
+            decrement(starts, entry.start());
+            decrement(ends, entry.end());
+            totalDuration = totalDuration.minus(entry.duration());
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        starts.clear();
+        ends.clear();
+        newCount = 0;
+        doneCount = 0;
+        totalDuration = Duration.ZERO;
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    Status getStatus() {
+        if (entries.isEmpty() || newCount == entries.size()) return Status.NEW;
+        if (doneCount == entries.size()) return Status.DONE;
+        return Status.IN_PROGRESS;
+    }
+
+    LocalDateTime getStartTime() {
+        return starts.isEmpty() ? null : starts.firstKey();
+    }
+
+    LocalDateTime getEndTime() {
+        return ends.isEmpty() ? null : ends.lastKey();
+    }
+
+    Duration getDuration() {
+        return totalDuration;
+    }
+
+    // Переносит агрегаты в эпик. Начало первой подзадачи учитывается, даже если у неё нет продолжительности
+    static void apply(EpicRollup rollup, Epic epic, Subtask first) {
+        if (rollup == null || rollup.isEmpty()) {
+            epic.setStatus(Status.NEW);
+            epic.setStartTime(null);
+            epic.setDuration(null);
+            epic.setEndTime(null);
+            return;
+        }
+        epic.setStatus(rollup.getStatus());
+        LocalDateTime earliest = rollup.getStartTime();
+        if (first != null && first.getStartTime() != null
+                && (earliest == null || first.getStartTime().isBefore(earliest))) {
+            earliest = first.getStartTime();
+        }
+        epic.setStartTime(earliest);
+        epic.setDuration(rollup.getDuration());
+        epic.setEndTime(rollup.getEndTime());
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> counts, LocalDateTime key) {
+        counts.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+    }
+
+    private record Entry(Status status, LocalDateTime start, LocalDateTime end, Duration duration) {
+        boolean isTimed() {
+            return start != null && duration != null;
+        }
+    }
+}
@@ -1,199 +1,664 @@
 package manager.task;
 
+import manager.history.HistoryEntry;
 import manager.task.exception.ManagerSaveException;
 import model.*;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class FileBackedTaskManager extends InMemoryTaskManager implements Closeable {
+    private static final long PARALLEL_LOAD_THRESHOLD = 2L * ParallelCSVParser.DEFAULT_CHUNK_SIZE;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
     private final File file;
+    private final PersistenceConfig config;
+    private final TaskJournal journal;
+    private final List<String> pendingRecords = new ArrayList<>();
+    private final Set<Integer> pendingViews = new LinkedHashSet<>();
+    private final ScheduledExecutorService flusher;
+    private boolean flusherStarted;
+    // Ошибка фонового сброса: изменения остаются несохранёнными, а саму ошибку получит
+    // следующий явный flush() или close()
+    private ManagerSaveException backgroundFailure;
+    private boolean journalStarted;
+    private boolean batching;
+    private boolean dirty;
+    private int pendingChanges;
+    private MappedSnapshot mapped;
 
     public FileBackedTaskManager(File file) {
+        this(file, PersistenceConfig.snapshot());
+    }
+
+    public FileBackedTaskManager(File file, PersistenceConfig config) {
         super();
         this.file = file;
+        this.config = config;
+        this.journal = config.journal() ? new TaskJournal(TaskJournal.journalFileFor(file)) : null;
+        if (config.writeBehind()) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-manager-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            flusher = null;
+        }
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file);
-        List<String> lines;
+        return loadFromFile(file, PersistenceConfig.snapshot());
+    }
 
-        try {
-            lines = Files.readAllLines(file.toPath());
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка чтения файла", e);
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceConfig config) {
+        File journalFile = TaskJournal.journalFileFor(file);
+        TaskJournal.truncateTornTail(journalFile);
+        List<String> records = TaskJournal.readRecords(journalFile);
+        if (config.mappedLoad() && records.isEmpty() && BinarySnapshotReader.isBinary(file)) {
+            return openMapped(file, config);
         }
 
-        if (lines.isEmpty()) return manager;
-
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, config);
         int maxId = 0;
-        int i = 1;
+        Set<Integer> historyIds = new LinkedHashSet<>();
+
+        if (BinarySnapshotReader.isBinary(file)) {
+            BinarySnapshotReader reader = BinarySnapshotReader.open(file);
+            Task task;
+            while ((task = reader.next()) != null) {
+                maxId = Math.max(maxId, task.getId());
+                manager.putRestored(task);
+            }
+            historyIds.addAll(reader.readHistory());
+        } else if (file.length() >= PARALLEL_LOAD_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+            ParallelCSVParser.Snapshot snapshot = ParallelCSVParser.parse(file, ParallelCSVParser.DEFAULT_CHUNK_SIZE);
+            for (Task task : snapshot.tasks()) {
+                maxId = Math.max(maxId, task.getId());
+                manager.putRestored(task);
+            }
+            historyIds.addAll(snapshot.history());
+        } else {
+            try (CSVRowReader row = new CSVRowReader(
+                    Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
+                row.next();
+                int rowNumber = 1;
+                while (row.next() && !row.isBlank()) {
+                    rowNumber++;
+                    Task task;
+                    try {
+                        task = CSVFormatter.fromRow(row);
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Ошибка парсинга записи №" + rowNumber, e);
+                    }
+                    maxId = Math.max(maxId, task.getId());
+                    manager.putRestored(task);
+                }
+                if (row.next()) {
+                    historyIds.addAll(CSVFormatter.historyFromRow(row));
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка чтения файла", e);
+            }
+        }
 
-        for (; i < lines.size(); i++) {
-            String line = lines.get(i);
-            if (line.isBlank()) break;
+        for (String record : records) {
+            maxId = Math.max(maxId, manager.replay(record, historyIds));
+        }
 
-            Task task = CSVFormatter.fromString(line);
-            int id = task.getId();
-            maxId = Math.max(maxId, id);
+        manager.nextId = maxId + 1;
+        manager.rebuildIndexes();
 
-            if (task instanceof Epic epic) {
-                manager.epics.put(id, epic);
-            } else if (task instanceof Subtask subtask) {
-                manager.subtasks.put(id, subtask);
-                manager.prioritizedTasks.add(subtask);
-            } else {
-                manager.tasks.put(id, task);
-                manager.prioritizedTasks.add(task);
+        for (int id : historyIds) {
+            Task task = manager.findTask(id);
+            if (task != null) {
+                manager.historyManager.add(task);
             }
         }
 
-        manager.nextId = maxId + 1;
+        if (manager.journal != null) {
+            manager.journal.setSize(records.size());
+            manager.journalStarted = true;
+        } else if (!records.isEmpty()) {
+            manager.save(config.durability() != Durability.NONE);
+            new TaskJournal(TaskJournal.journalFileFor(file)).reset();
+        }
 
-        for (Subtask sub : manager.subtasks.values()) {
-            Epic epic = manager.epics.get(sub.getEpicId());
+        return manager;
+    }
+
+    // Сразу разбираются только задачи из истории, остальные — при первом обращении по id.
+    // Операции над всей доской и любые изменения сначала разбирают снимок целиком.
+    private static FileBackedTaskManager openMapped(File file, PersistenceConfig config) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, config);
+        manager.mapped = MappedSnapshot.open(file);
+        manager.nextId = manager.mapped.getMaxId() + 1;
+
+        for (int id : manager.mapped.getHistory()) {
+            manager.materialize(id);
+            Task task = manager.findTask(id);
+            if (task != null) {
+                manager.historyManager.add(task);
+            }
+        }
+
+        if (manager.journal != null) {
+            manager.journal.setSize(0);
+            manager.journalStarted = true;
+        }
+        return manager;
+    }
+
+    private void rebuildIndexes() {
+        for (Task task : tasks.values()) {
+            addPrioritized(task);
+        }
+
+        for (Subtask sub : subtasks.values()) {
+            Epic epic = epics.get(sub.getEpicId());
             if (epic != null) {
-                epic.addSubtaskId(sub.getId());
+                linkSubtask(epic, sub);
             }
+            addPrioritized(sub);
         }
 
-        for (Epic epic : manager.epics.values()) {
-            manager.updateEpic(epic);
+        for (Epic epic : epics.values()) {
+            refreshEpic(epic);
         }
+    }
+
+    private void materialize(int id) {
+        if (mapped == null) return;
+        Task task = mapped.take(id);
+        if (task == null) return;
+        putRestored(task);
+        if (task instanceof Epic epic) {
+            mapped.getSubtaskIds(id).forEach(epic::addSubtaskId);
+        }
+    }
 
-        if (i + 1 < lines.size()) {
-            String historyLine = lines.get(i + 1);
-            List<Integer> historyIds = CSVFormatter.historyFromString(historyLine);
+    private void materializeAll() {
+        if (mapped == null) return;
+        mapped.takeAll().forEach(this::putRestored);
+        mapped = null;
+        // Связи эпиков и агрегаты строятся заново по полному набору подзадач
+        epics.values().forEach(epic -> epic.getSubtaskIds().clear());
+        rebuildIndexes();
+    }
+
+    private void putRestored(Task task) {
+        int id = task.getId();
+        if (task instanceof Epic epic) {
+            epics.put(id, epic);
+        } else if (task instanceof Subtask subtask) {
+            subtasks.put(id, subtask);
+        } else {
+            tasks.put(id, task);
+        }
+    }
 
-            for (int id : historyIds) {
-                Task task = manager.tasks.get(id);
-                if (task == null) task = manager.epics.get(id);
-                if (task == null) task = manager.subtasks.get(id);
-                if (task != null) {
-                    manager.historyManager.add(task);
+    private int replay(String record, Set<Integer> historyIds) {
+        String payload = TaskJournal.payload(record);
+        switch (TaskJournal.kind(record)) {
+            case TaskJournal.PUT -> {
+                Task task = CSVFormatter.fromString(payload);
+                putRestored(task);
+                return task.getId();
+            }
+            case TaskJournal.DELETE -> {
+                int id = Integer.parseInt(payload);
+                tasks.remove(id);
+                epics.remove(id);
+                subtasks.remove(id);
+                historyIds.remove(id);
+                return id;
+            }
+            case TaskJournal.CLEAR -> {
+                switch (TaskType.valueOf(payload)) {
+                    case TASK -> {
+                        tasks.forEachKey(historyIds::remove);
+                        tasks.clear();
+                    }
+                    case EPIC -> {
+                        epics.forEachKey(historyIds::remove);
+                        subtasks.forEachKey(historyIds::remove);
+                        epics.clear();
+                        subtasks.clear();
+                    }
+                    case SUBTASK -> {
+                        subtasks.forEachKey(historyIds::remove);
+                        subtasks.clear();
+                    }
                 }
+                return 0;
+            }
+            case TaskJournal.VIEW -> {
+                int id = Integer.parseInt(payload);
+                historyIds.remove(id);
+                historyIds.add(id);
+                return id;
             }
+            default -> throw new IllegalArgumentException("Неизвестная запись журнала: '" + record + "'");
         }
+    }
 
-        return manager;
+    private Task findTask(int id) {
+        Task task = tasks.get(id);
+        if (task == null) task = epics.get(id);
+        if (task == null) task = subtasks.get(id);
+        return task;
     }
 
     @Override
-    public void createTask(Task task) {
+    public synchronized void createTask(Task task) {
+        materializeAll();
         super.createTask(task);
-        save();
+        persist(TaskJournal.put(task));
     }
 
     @Override
-    public void createSubtask(Subtask subtask) {
+    public synchronized void createSubtask(Subtask subtask) {
+        materializeAll();
         super.createSubtask(subtask);
-        save();
+        persist(TaskJournal.put(subtask));
     }
 
     @Override
-    public void createEpic(Epic epic) {
+    public synchronized void createEpic(Epic epic) {
+        materializeAll();
         super.createEpic(epic);
-        save();
+        persist(TaskJournal.put(epic));
     }
 
     @Override
-    public void updateTask(Task task) {
+    public synchronized void updateTask(Task task) {
+        materializeAll();
         super.updateTask(task);
-        save();
+        persist(TaskJournal.put(task));
     }
 
     @Override
-    public void updateSubtask(Subtask subtask) {
+    public synchronized void updateSubtask(Subtask subtask) {
+        materializeAll();
         super.updateSubtask(subtask);
-        save();
+        persist(TaskJournal.put(subtask));
     }
 
     @Override
-    public void updateEpic(Epic epic) {
+    public synchronized void updateEpic(Epic epic) {
+        materializeAll();
         super.updateEpic(epic);
-        save();
+        persist(TaskJournal.put(epics.get(epic.getId())));
     }
 
     @Override
-    public void deleteTaskById(int id) {
+    public synchronized void deleteTaskById(int id) {
+        materializeAll();
         super.deleteTaskById(id);
-        save();
+        persist(TaskJournal.delete(id));
     }
 
     @Override
-    public void deleteSubtaskById(int id) {
+    public synchronized void deleteSubtaskById(int id) {
+        materializeAll();
         super.deleteSubtaskById(id);
-        save();
+        persist(TaskJournal.delete(id));
     }
 
     @Override
-    public void deleteEpicById(int id) {
+    public synchronized void deleteEpicById(int id) {
+        materializeAll();
+        Epic epic = epics.get(id);
+        List<String> records = new ArrayList<>();
+        if (epic != null) {
+            epic.getSubtaskIds().forEach(sid -> records.add(TaskJournal.delete(sid)));
+        }
+        records.add(TaskJournal.delete(id));
         super.deleteEpicById(id);
-        save();
+        persist(records.toArray(new String[0]));
     }
 
+    // Операции пачки копят записи журнала, сохранение одно на всю пачку
     @Override
-    public void clearTasks() {
+    public synchronized void applyAll(List<BatchOperation> operations) {
+        materializeAll();
+        int changesBefore = pendingChanges;
+        batching = true;
+        try {
+            super.applyAll(operations);
+        } finally {
+            batching = false;
+        }
+        if (pendingChanges == changesBefore) return;
+        if (flusher == null) {
+            flush();
+        } else {
+            startFlusher();
+            if (pendingChanges >= config.maxPendingChanges()) {
+                flusher.execute(this::backgroundFlush);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clearTasks() {
+        materializeAll();
         super.clearTasks();
-        save();
+        persist(TaskJournal.clear(TaskType.TASK));
     }
 
     @Override
-    public void clearSubtasks() {
+    public synchronized void clearSubtasks() {
+        materializeAll();
         super.clearSubtasks();
-        save();
+        persist(TaskJournal.clear(TaskType.SUBTASK));
     }
 
     @Override
-    public void clearEpics() {
+    public synchronized void clearEpics() {
+        materializeAll();
         super.clearEpics();
-        save();
+        persist(TaskJournal.clear(TaskType.EPIC));
     }
 
     @Override
-    public Task getTaskById(int id) {
+    public synchronized Task getTaskById(int id) {
+        materialize(id);
         Task task = super.getTaskById(id);
-        save();
+        recordView(id);
         return task;
     }
 
     @Override
-    public Subtask getSubtaskById(int id) {
+    public synchronized Subtask getSubtaskById(int id) {
+        materialize(id);
         Subtask subtask = super.getSubtaskById(id);
-        save();
+        recordView(id);
         return subtask;
     }
 
     @Override
-    public Epic getEpicById(int id) {
+    public synchronized Epic getEpicById(int id) {
+        materialize(id);
         Epic epic = super.getEpicById(id);
-        save();
+        recordView(id);
         return epic;
     }
 
-    private void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            writer.write(CSVFormatter.getHeader());
-            writer.newLine();
+    @Override
+    public synchronized List<Subtask> getSubtasksByEpicId(int epicId) {
+        materialize(epicId);
+        Epic epic = epics.get(epicId);
+        if (epic != null) {
+            epic.getSubtaskIds().forEach(this::materialize);
+        }
+        return super.getSubtasksByEpicId(epicId);
+    }
+
+    @Override
+    public synchronized List<Task> getAllTasks() {
+        materializeAll();
+        return super.getAllTasks();
+    }
+
+    @Override
+    public synchronized List<Epic> getAllEpics() {
+        materializeAll();
+        return super.getAllEpics();
+    }
+
+    @Override
+    public synchronized List<Subtask> getAllSubtasks() {
+        materializeAll();
+        return super.getAllSubtasks();
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks() {
+        materializeAll();
+        return super.getPrioritizedTasks();
+    }
+
+    @Override
+    public synchronized List<Task> getTasks(int afterId, int limit) {
+        materializeAll();
+        return super.getTasks(afterId, limit);
+    }
+
+    @Override
+    public synchronized List<Epic> getEpics(int afterId, int limit) {
+        materializeAll();
+        return super.getEpics(afterId, limit);
+    }
+
+    @Override
+    public synchronized List<Subtask> getSubtasks(int afterId, int limit) {
+        materializeAll();
+        return super.getSubtasks(afterId, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks(Task after, int limit) {
+        materializeAll();
+        return super.getPrioritizedTasks(after, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to) {
+        materializeAll();
+        return super.getPrioritizedTasksBetween(from, to);
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to,
+                                                              Task after, int limit) {
+        materializeAll();
+        return super.getPrioritizedTasksBetween(from, to, after, limit);
+    }
 
-            for (Task task : getAllTasks()) {
-                writer.write(CSVFormatter.toString(task));
-                writer.newLine();
+    @Override
+    public synchronized List<TimeSlot> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to,
+                                                     int limit) {
+        materializeAll();
+        return super.findFreeSlots(duration, from, to, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return super.getHistory();
+    }
+
+    @Override
+    public synchronized List<HistoryEntry> getHistory(int afterId, long afterView, int limit) {
+        return super.getHistory(afterId, afterView, limit);
+    }
+
+    @Override
+    public synchronized long getVersion() {
+        return super.getVersion();
+    }
+
+    @Override
+    public synchronized long getVersion(TaskType type) {
+        return super.getVersion(type);
+    }
+
+    public synchronized void flush() {
+        ManagerSaveException failure = backgroundFailure;
+        backgroundFailure = null;
+        try {
+            writePending();
+        } catch (ManagerSaveException e) {
+            if (failure != null) e.addSuppressed(failure);
+            throw e;
+        }
+        if (failure != null) throw failure;
+    }
+
+    private void writePending() {
+        if (!dirty) return;
+        boolean sync = config.durability() != Durability.NONE;
+        if (journal == null) {
+            save(sync);
+        } else if (!journalStarted
+                || journal.size() + pendingRecords.size() + pendingViews.size() > config.compactionThreshold()) {
+            // Первое изменение в новом менеджере фиксирует полный снимок, на который ляжет журнал
+            compact(sync);
+        } else {
+            for (String record : pendingRecords) {
+                journal.append(record);
             }
-            for (Epic epic : getAllEpics()) {
-                writer.write(CSVFormatter.toString(epic));
-                writer.newLine();
+            for (int id : pendingViews) {
+                journal.append(TaskJournal.view(id));
             }
-            for (Subtask subtask : getAllSubtasks()) {
-                writer.write(CSVFormatter.toString(subtask));
-                writer.newLine();
+            journal.flush(sync);
+        }
+        pendingRecords.clear();
+        pendingViews.clear();
+        pendingChanges = 0;
+        dirty = false;
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            writer.newLine();
+        }
+        synchronized (this) {
+            try {
+                flush();
+            } finally {
+                if (journal != null) {
+                    journal.close();
+                }
+            }
+        }
+    }
 
-            writer.write(CSVFormatter.historyToString(historyManager));
+    private synchronized void persist(String... records) {
+        if (journal != null) {
+            Collections.addAll(pendingRecords, records);
+        }
+        dirty = true;
+        pendingChanges++;
+        if (batching) return;
+        if (flusher == null) {
+            flush();
+        } else {
+            startFlusher();
+            // Порог сравнивается через >=: пачка может перешагнуть его, а после неудачного фонового
+            // сброса счётчик не обнуляется, и каждое следующее изменение снова просит сброс
+            if (pendingChanges >= config.maxPendingChanges()) {
+                flusher.execute(this::backgroundFlush);
+            }
+        }
+    }
+
+    // Просмотр меняет только историю: диск не трогаем, история уйдёт с ближайшим сбросом данных,
+    // явным flush()/close() или фоновым сбросом в режиме отложенной записи
+    private void recordView(int id) {
+        if (journal != null) {
+            pendingViews.remove(id);
+            pendingViews.add(id);
+        }
+        dirty = true;
+        startFlusher();
+    }
+
+    // Периодический сброс запускается с первым изменением, а не в конструкторе,
+    // чтобы поток не получил ссылку на ещё не созданный объект
+    private void startFlusher() {
+        if (flusher == null || flusherStarted) return;
+        flusherStarted = true;
+        flusher.scheduleWithFixedDelay(this::backgroundFlush, config.flushIntervalMillis(),
+                config.flushIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void backgroundFlush() {
+        try {
+            writePending();
+        } catch (ManagerSaveException e) {
+            // Изменения остаются помеченными как несохранённые и будут записаны при следующем сбросе
+            backgroundFailure = e;
+        }
+    }
+
+    private void compact(boolean sync) {
+        save(sync);
+        journal.reset();
+        journalStarted = true;
+    }
+
+    private void save(boolean sync) {
+        materializeAll();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(tmp)) {
+            if (config.format() == SnapshotFormat.BINARY) {
+                writeBinary(output);
+            } else {
+                writeCsv(output);
+            }
+            if (sync) {
+                output.getFD().sync();
+            }
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка сохранения файла", e);
         }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения файла", e);
+        }
+    }
+
+    private void writeCsv(OutputStream output) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSVFormatter.getHeader());
+        writer.newLine();
+
+        for (Task task : tasks.values()) {
+            CSVFormatter.write(task, writer);
+            writer.newLine();
+        }
+        for (Epic epic : epics.values()) {
+            CSVFormatter.write(epic, writer);
+            writer.newLine();
+        }
+        for (Subtask subtask : subtasks.values()) {
+            CSVFormatter.write(subtask, writer);
+            writer.newLine();
+        }
+        writer.newLine();
+
+        writer.write(CSVFormatter.historyToString(historyManager));
+        writer.flush();
+    }
+
+    private void writeBinary(OutputStream output) throws IOException {
+        BinarySnapshotWriter writer = new BinarySnapshotWriter(output);
+        for (Task task : tasks.values()) {
+            writer.write(task);
+        }
+        for (Epic epic : epics.values()) {
+            writer.write(epic);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            writer.write(subtask);
+        }
+        writer.writeHistory(historyManager.getHistory().stream().map(Task::getId).toList());
+        writer.flush();
     }
 }
@@ -0,0 +1,83 @@
+package manager.task;
+
+import model.Task;
+import model.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+// Поиск свободных промежутков в расписании. Запланированные задачи не пересекаются, поэтому
+// в порядке startTime они упорядочены и по концу, и промежутки — это разрывы между концом задачи
+// и началом следующей. Границы пересечений включительные (см. TaskIntervalTree), а длительности
+// хранятся с точностью до минуты, поэтому промежуток начинается через минуту после конца задачи
+// и заканчивается за минуту до начала следующей.
+final class FreeSlotFinder {
+    static final Duration GAP = Duration.ofMinutes(1);
+
+    private FreeSlotFinder() {
+    }
+
+    // Образец для сравнения в порядке приоритета: меньше любой задачи с тем же startTime
+    static Task probe(LocalDateTime startTime) {
+        Task probe = new Task(null, null, null, startTime, null);
+        probe.setId(Integer.MIN_VALUE);
+        return probe;
+    }
+
+    // Последняя задача с duration, начавшаяся раньше time. lower — предыдущая задача в порядке приоритета
+    static Task lastScheduledBefore(LocalDateTime time, UnaryOperator<Task> lower) {
+        Task task = lower.apply(probe(time));
+        while (task != null && task.getEndTime() == null) {
+            task = lower.apply(task);
+        }
+        return task;
+    }
+
+    // before — результат lastScheduledBefore(from), tasks — задачи в порядке приоритета начиная
+    // со startTime не раньше from. Читает задачи лениво, пока не найдёт limit промежутков или не выйдет за to
+    static List<TimeSlot> find(Task before, Iterator<Task> tasks, Duration duration,
+                               LocalDateTime from, LocalDateTime to, int limit) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Длительность должна быть положительной");
+        }
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Окно поиска должно быть задано");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало окна позже конца");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Количество промежутков не может быть отрицательным");
+        }
+        List<TimeSlot> result = new ArrayList<>();
+        LocalDateTime cursor = from;
+        if (before != null && !before.getEndTime().isBefore(from)) {
+            cursor = before.getEndTime().plus(GAP);
+        }
+        while (result.size() < limit && tasks.hasNext()) {
+            Task task = tasks.next();
+            // Задача без duration или startTime место в расписании не занимает
+            if (task.getEndTime() == null) continue;
+            if (task.getStartTime().isAfter(to)) break;
+            addIfFits(result, cursor, task.getStartTime().minus(GAP), duration);
+            LocalDateTime next = task.getEndTime().plus(GAP);
+            if (next.isAfter(cursor)) {
+                cursor = next;
+            }
+        }
+        if (result.size() < limit) {
+            addIfFits(result, cursor, to, duration);
+        }
+        return result;
+    }
+
+    private static void addIfFits(List<TimeSlot> result, LocalDateTime start, LocalDateTime end, Duration duration) {
+        if (!end.isBefore(start) && Duration.between(start, end).compareTo(duration) >= 0) {
+            result.add(new TimeSlot(start, end));
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package manager.task;
 
 import manager.Managers;
+import manager.history.HistoryEntry;
 import manager.history.HistoryManager;
 import model.Epic;
 import model.Subtask;
 import model.Task;
-import model.Status;
+import model.TaskType;
+import model.TimeSlot;
 import manager.task.exception.NotFoundException;
 import manager.task.exception.IntersectionException;
+import util.IntHashMap;
+import util.IntSortedMap;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -16,14 +20,21 @@ import java.util.*;
 public class InMemoryTaskManager implements TaskManager {
     protected int nextId = 1;
 
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
+    // Упорядочены по id, чтобы страницы читались с произвольного id без копирования коллекции.
+    // Ключи примитивные: на запись уходит 8–12 байт против ~56 у TreeMap с Integer
+    protected final IntSortedMap<Task> tasks = new IntSortedMap<>();
+    protected final IntSortedMap<Epic> epics = new IntSortedMap<>();
+    protected final IntSortedMap<Subtask> subtasks = new IntSortedMap<>();
     protected final HistoryManager historyManager = Managers.getDefaultHistory();
 
     protected final TreeSet<Task> prioritizedTasks = new TreeSet<>(
             Comparator.comparing(Task::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
                     .thenComparing(Task::getId));
+    protected final TaskIntervalTree timeIndex = new TaskIntervalTree();
+    protected final IntHashMap<EpicRollup> epicRollups = new IntHashMap<>();
+
+    private long version;
+    private final long[] versions = new long[TaskType.values().length];
 
     @Override
     public List<Task> getPrioritizedTasks() {
@@ -31,44 +42,42 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     private boolean hasTimeIntersection(Task newTask) {
-        if (newTask.getStartTime() == null || newTask.getDuration() == null) return false;
-        LocalDateTime newStart = newTask.getStartTime();
-        LocalDateTime newEnd = newTask.getEndTime();
-        return prioritizedTasks.stream()
-                .filter(existing -> existing.getId() != newTask.getId())
-                .anyMatch(existing -> {
-                    if (existing.getStartTime() == null || existing.getDuration() == null) {
-                        return false;
-                    }
-                    LocalDateTime existingStart = existing.getStartTime();
-                    LocalDateTime existingEnd = existing.getEndTime();
-                    return !(newEnd.isBefore(existingStart) || newStart.isAfter(existingEnd));
-                });
-    }
-
-    private void updateEpicTimeFields(Epic epic) {
-        List<Subtask> subs = getSubtasksByEpicId(epic.getId());
-        if (subs.isEmpty()) {
-            epic.setStartTime(null);
-            epic.setDuration(null);
-            epic.setEndTime(null);
-            return;
-        }
-        LocalDateTime earliest = subs.getFirst().getStartTime();
-        LocalDateTime latest = subs.getFirst().getEndTime();
-        Duration total = Duration.ZERO;
-        for (Subtask st : subs) {
-            if (st.getStartTime() != null && st.getDuration() != null) {
-                LocalDateTime s = st.getStartTime();
-                LocalDateTime e = st.getEndTime();
-                if (earliest == null || s.isBefore(earliest)) earliest = s;
-                if (latest == null || e.isAfter(latest)) latest = e;
-                total = total.plus(st.getDuration());
-            }
-        }
-        epic.setStartTime(earliest);
-        epic.setDuration(total);
-        epic.setEndTime(latest);
+        return timeIndex.hasIntersection(newTask);
+    }
+
+    protected void addPrioritized(Task task) {
+        prioritizedTasks.add(task);
+        timeIndex.add(task);
+    }
+
+    protected void removePrioritized(Task task) {
+        prioritizedTasks.remove(task);
+        timeIndex.remove(task.getId());
+    }
+
+    protected void linkSubtask(Epic epic, Subtask subtask) {
+        epic.addSubtaskId(subtask.getId());
+        epicRollups.computeIfAbsent(epic.getId(), id -> new EpicRollup()).add(subtask);
+    }
+
+    protected void refreshEpic(Epic epic) {
+        EpicRollup rollup = epicRollups.get(epic.getId());
+        Subtask first = epic.getSubtaskIds().isEmpty() ? null : subtasks.get(epic.getSubtaskIds().getInt(0));
+        EpicRollup.apply(rollup, epic, first);
+    }
+
+    private void touch(TaskType type) {
+        versions[type.ordinal()] = ++version;
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public long getVersion(TaskType type) {
+        return versions[type.ordinal()];
     }
 
     private int generateId() {
@@ -82,13 +91,15 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IntersectionException();
         }
         tasks.put(task.getId(), task);
-        prioritizedTasks.add(task);
+        addPrioritized(task);
+        touch(TaskType.TASK);
     }
 
     @Override
     public void createEpic(Epic epic) {
         epic.setId(generateId());
         epics.put(epic.getId(), epic);
+        touch(TaskType.EPIC);
     }
 
     @Override
@@ -102,9 +113,11 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IntersectionException();
         }
         subtasks.put(subtask.getId(), subtask);
-        epic.addSubtaskId(subtask.getId());
-        updateEpic(epic);
-        prioritizedTasks.add(subtask);
+        linkSubtask(epic, subtask);
+        refreshEpic(epic);
+        addPrioritized(subtask);
+        touch(TaskType.SUBTASK);
+        touch(TaskType.EPIC);
     }
 
     @Override
@@ -112,14 +125,14 @@ public class InMemoryTaskManager implements TaskManager {
         if (!tasks.containsKey(task.getId())) {
             throw new NotFoundException("Задача с id " + task.getId() + " не найдена");
         }
-        Task old = tasks.get(task.getId());
-        prioritizedTasks.remove(old);
         if (hasTimeIntersection(task)) {
-            prioritizedTasks.add(old);
             throw new IntersectionException();
         }
+        Task old = tasks.get(task.getId());
+        removePrioritized(old);
         tasks.put(task.getId(), task);
-        prioritizedTasks.add(task);
+        addPrioritized(task);
+        touch(TaskType.TASK);
     }
 
     @Override
@@ -130,15 +143,8 @@ public class InMemoryTaskManager implements TaskManager {
         }
         stored.setName(epic.getName());
         stored.setDescription(epic.getDescription());
-        List<Subtask> subs = getSubtasksByEpicId(stored.getId());
-        if (subs.isEmpty()) {
-            stored.setStatus(Status.NEW);
-        } else {
-            boolean allNew = subs.stream().allMatch(st -> st.getStatus() == Status.NEW);
-            boolean allDone = subs.stream().allMatch(st -> st.getStatus() == Status.DONE);
-            stored.setStatus(allDone ? Status.DONE : allNew ? Status.NEW : Status.IN_PROGRESS);
-        }
-        updateEpicTimeFields(stored);
+        refreshEpic(stored);
+        touch(TaskType.EPIC);
     }
 
     @Override
@@ -146,24 +152,30 @@ public class InMemoryTaskManager implements TaskManager {
         if (!subtasks.containsKey(subtask.getId())) {
             throw new NotFoundException("Подзадача с id " + subtask.getId() + " не найдена");
         }
-        Subtask old = subtasks.get(subtask.getId());
-        prioritizedTasks.remove(old);
         if (hasTimeIntersection(subtask)) {
-            prioritizedTasks.add(old);
             throw new IntersectionException();
         }
+        Subtask old = subtasks.get(subtask.getId());
+        removePrioritized(old);
         subtasks.put(subtask.getId(), subtask);
-        prioritizedTasks.add(subtask);
-        Epic epic = epics.get(subtask.getEpicId());
-        if (epic != null) updateEpic(epic);
+        addPrioritized(subtask);
+        EpicRollup rollup = epicRollups.get(old.getEpicId());
+        if (rollup != null) {
+            rollup.add(subtask);
+        }
+        Epic epic = epics.get(old.getEpicId());
+        if (epic != null) refreshEpic(epic);
+        touch(TaskType.SUBTASK);
+        touch(TaskType.EPIC);
     }
 
     @Override
     public void deleteTaskById(int id) {
         Task removed = tasks.remove(id);
         if (removed != null) {
-            prioritizedTasks.remove(removed);
+            removePrioritized(removed);
             historyManager.remove(id);
+            touch(TaskType.TASK);
         }
     }
 
@@ -171,14 +183,17 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteEpicById(int id) {
         Epic removed = epics.remove(id);
         if (removed != null) {
+            epicRollups.remove(id);
             for (int sid : removed.getSubtaskIds()) {
                 Subtask st = subtasks.remove(sid);
                 if (st != null) {
-                    prioritizedTasks.remove(st);
+                    removePrioritized(st);
                     historyManager.remove(sid);
                 }
             }
             historyManager.remove(id);
+            touch(TaskType.EPIC);
+            touch(TaskType.SUBTASK);
         }
     }
 
@@ -186,41 +201,62 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteSubtaskById(int id) {
         Subtask removed = subtasks.remove(id);
         if (removed != null) {
-            prioritizedTasks.remove(removed);
+            removePrioritized(removed);
             Epic epic = epics.get(removed.getEpicId());
             if (epic != null) {
                 epic.removeSubtaskId(id);
-                updateEpic(epic);
+                EpicRollup rollup = epicRollups.get(epic.getId());
+                if (rollup != null) rollup.remove(id);
+                refreshEpic(epic);
             }
             historyManager.remove(id);
+            touch(TaskType.SUBTASK);
+            touch(TaskType.EPIC);
         }
     }
 
     @Override
     public void clearTasks() {
-        tasks.keySet().forEach(historyManager::remove);
-        prioritizedTasks.clear();
+        tasks.forEachKey(historyManager::remove);
+        tasks.forEachKey(timeIndex::remove);
+        prioritizedTasks.removeIf(t -> !(t instanceof Subtask));
         tasks.clear();
+        touch(TaskType.TASK);
     }
 
     @Override
     public void clearEpics() {
         epics.values().forEach(ep -> ep.getSubtaskIds().forEach(historyManager::remove));
-        subtasks.keySet().forEach(historyManager::remove);
+        subtasks.forEachKey(historyManager::remove);
+        subtasks.forEachKey(timeIndex::remove);
         prioritizedTasks.removeIf(t -> t instanceof Subtask);
         epics.clear();
         subtasks.clear();
+        epicRollups.clear();
+        touch(TaskType.EPIC);
+        touch(TaskType.SUBTASK);
     }
 
     @Override
     public void clearSubtasks() {
-        subtasks.keySet().forEach(historyManager::remove);
+        subtasks.forEachKey(historyManager::remove);
+        subtasks.forEachKey(timeIndex::remove);
         prioritizedTasks.removeIf(t -> t instanceof Subtask);
         subtasks.clear();
+        epicRollups.clear();
         epics.values().forEach(ep -> {
             ep.getSubtaskIds().clear();
-            updateEpic(ep);
+            refreshEpic(ep);
         });
+        touch(TaskType.SUBTASK);
+        touch(TaskType.EPIC);
+    }
+
+    @Override
+    public void applyAll(List<BatchOperation> operations) {
+        TaskBatch.validate(operations, new TaskBatch.State(tasks::get, epics::get, subtasks::get,
+                timeIndex::findIntersecting));
+        TaskBatch.apply(operations, this);
     }
 
     @Override
@@ -273,6 +309,65 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(subtasks.values());
     }
 
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return take(tasks.valuesAfter(afterId), limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return take(epics.valuesAfter(afterId), limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return take(subtasks.valuesAfter(afterId), limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(Task after, int limit) {
+        return take(after == null ? prioritizedTasks : prioritizedTasks.tailSet(after, false), limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to) {
+        return timeIndex.findInWindow(from, to);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to, Task after, int limit) {
+        return TaskIntervalTree.windowPage(from, to, after, limit, prioritizedTasks.comparator(),
+                prioritizedTasks::lower, key -> prioritizedTasks.tailSet(key, false).iterator());
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to, int limit) {
+        Task before = from == null ? null : FreeSlotFinder.lastScheduledBefore(from, prioritizedTasks::lower);
+        return FreeSlotFinder.find(before, prioritizedTasks.tailSet(FreeSlotFinder.probe(from), true).iterator(),
+                duration, from, to, limit);
+    }
+
+    @Override
+    public List<HistoryEntry> getHistory(int afterId, long afterView, int limit) {
+        return historyManager.getHistory(afterId, afterView, limit);
+    }
+
+    static <T> List<T> page(NavigableMap<Integer, T> source, int afterId, int limit) {
+        return take(source.tailMap(afterId, false).values(), limit);
+    }
+
+    static <T> List<T> take(Iterable<T> source, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Размер страницы не может быть отрицательным");
+        }
+        List<T> result = new ArrayList<>();
+        for (T value : source) {
+            if (result.size() >= limit) break;
+            result.add(value);
+        }
+        return result;
+    }
+
     @Override
     public List<Subtask> getSubtasksByEpicId(int epicId) {
         Epic epic = epics.get(epicId);
@@ -280,10 +375,10 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException("Эпик с id " + epicId + " не найден");
         }
         List<Subtask> result = new ArrayList<>();
-        for (Integer sid : epic.getSubtaskIds()) {
+        epic.getSubtaskIds().forEachInt(sid -> {
             Subtask st = subtasks.get(sid);
             if (st != null) result.add(st);
-        }
+        });
         return result;
     }
 }
@@ -0,0 +1,97 @@
+package manager.task;
+
+import manager.task.exception.ManagerSaveException;
+import model.Task;
+import model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Бинарный снимок, отображённый в память. При открытии читаются только заголовки записей
+// (тег, длина, id и epicId), по ним строится индекс id -> смещение; сами записи разбираются
+// при первом обращении и после этого из индекса удаляются.
+class MappedSnapshot {
+    private static final TaskType[] TYPES = TaskType.values();
+
+    private final BinarySnapshotReader reader;
+    private final Map<Integer, Integer> offsets = new HashMap<>();
+    private final Map<Integer, List<Integer>> epicSubtaskIds = new HashMap<>();
+    private final List<Integer> history = new ArrayList<>();
+    private int maxId;
+
+    private MappedSnapshot(ByteBuffer buffer) {
+        reader = new BinarySnapshotReader(buffer.duplicate());
+        ByteBuffer scan = buffer.duplicate();
+        scan.position(BinarySnapshotWriter.MAGIC.length + 1);
+        try {
+            int tag;
+            while ((tag = scan.get()) != BinarySnapshotWriter.END_OF_RECORDS) {
+                int position = scan.position() - 1;
+                int length = (int) BinarySnapshotReader.readVarLong(scan);
+                int bodyStart = scan.position();
+                int id = (int) BinarySnapshotReader.readVarLong(scan);
+                BinarySnapshotReader.readVarLong(scan);
+                if (TYPES[tag - 1] == TaskType.SUBTASK) {
+                    int epicId = (int) BinarySnapshotReader.readVarLong(scan);
+                    epicSubtaskIds.computeIfAbsent(epicId, key -> new ArrayList<>()).add(id);
+                }
+                offsets.put(id, position);
+                maxId = Math.max(maxId, id);
+                scan.position(bodyStart + length);
+            }
+            int count = (int) BinarySnapshotReader.readVarLong(scan);
+            for (int i = 0; i < count; i++) {
+                history.add((int) BinarySnapshotReader.readVarLong(scan));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Ошибка чтения бинарного снимка в позиции " + scan.position(), e);
+        }
+    }
+
+    static MappedSnapshot open(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Файл снимка слишком велик для отображения в память");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedSnapshot(buffer);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла", e);
+        }
+    }
+
+    int getMaxId() {
+        return maxId;
+    }
+
+    List<Integer> getHistory() {
+        return history;
+    }
+
+    List<Integer> getSubtaskIds(int epicId) {
+        return epicSubtaskIds.getOrDefault(epicId, List.of());
+    }
+
+    // Возвращает задачу, если она ещё не была разобрана, иначе null
+    Task take(int id) {
+        Integer offset = offsets.remove(id);
+        return offset == null ? null : reader.readAt(offset);
+    }
+
+    List<Task> takeAll() {
+        List<Task> result = new ArrayList<>(offsets.size());
+        for (int offset : offsets.values()) {
+            result.add(reader.readAt(offset));
+        }
+        offsets.clear();
+        return result;
+    }
+}
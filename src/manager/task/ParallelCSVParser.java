@@ -0,0 +1,134 @@
+package manager.task;
+
+import manager.task.exception.ManagerSaveException;
+import model.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Параллельный разбор больших CSV-снимков. Один быстрый проход по байтам находит границы записей
+// (с учётом переводов строк внутри кавычек) и делит секцию задач на блоки примерно по chunkSize байт.
+// Блоки разбираются параллельно, результаты возвращаются в порядке следования в файле,
+// поэтому слияние даёт то же состояние, что и последовательная загрузка.
+public class ParallelCSVParser {
+    public static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+    private ParallelCSVParser() {
+    }
+
+    public record Snapshot(List<Task> tasks, List<Integer> history) {
+    }
+
+    private record Chunk(int start, int end, int firstRow) {
+    }
+
+    public static Snapshot parse(File file, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Размер блока должен быть положительным");
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Файл снимка слишком велик для отображения в память");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла", e);
+        }
+
+        int limit = buffer.limit();
+        int position = 0;
+        while (position < limit && buffer.get(position) != '\n') {
+            position++;
+        }
+        position++;
+
+        List<Chunk> chunks = new ArrayList<>();
+        int chunkStart = position;
+        int lineStart = position;
+        int row = 2;
+        int chunkFirstRow = row;
+        int recordsEnd = limit;
+        int historyStart = limit;
+        boolean quoted = false;
+        boolean content = false;
+        for (int i = position; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+                content = true;
+            } else if (quoted) {
+                // внутри кавычек перевод строки не завершает запись
+            } else if (b == '\n') {
+                if (!content) {
+                    recordsEnd = lineStart;
+                    historyStart = i + 1;
+                    break;
+                }
+                content = false;
+                lineStart = i + 1;
+                row++;
+                if (lineStart - chunkStart >= chunkSize) {
+                    chunks.add(new Chunk(chunkStart, lineStart, chunkFirstRow));
+                    chunkStart = lineStart;
+                    chunkFirstRow = row;
+                }
+            } else if ((b & 0xFF) > ' ') {
+                content = true;
+            }
+        }
+        if (chunkStart < recordsEnd) {
+            chunks.add(new Chunk(chunkStart, recordsEnd, chunkFirstRow));
+        }
+
+        List<Task> tasks = new ArrayList<>();
+        chunks.parallelStream()
+                .map(chunk -> parseChunk(buffer, chunk))
+                .toList()
+                .forEach(tasks::addAll);
+
+        List<Integer> history = List.of();
+        if (historyStart < limit) {
+            try (CSVRowReader reader = reader(buffer, historyStart, limit)) {
+                if (reader.next()) {
+                    history = CSVFormatter.historyFromRow(reader);
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка чтения файла", e);
+            }
+        }
+        return new Snapshot(tasks, history);
+    }
+
+    private static List<Task> parseChunk(MappedByteBuffer buffer, Chunk chunk) {
+        List<Task> tasks = new ArrayList<>();
+        int rowNumber = chunk.firstRow();
+        try (CSVRowReader reader = reader(buffer, chunk.start(), chunk.end())) {
+            while (reader.next()) {
+                try {
+                    tasks.add(CSVFormatter.fromRow(reader));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Ошибка парсинга записи №" + rowNumber, e);
+                }
+                rowNumber++;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения файла", e);
+        }
+        return tasks;
+    }
+
+    private static CSVRowReader reader(MappedByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new CSVRowReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+    }
+}
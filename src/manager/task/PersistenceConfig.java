@@ -0,0 +1,65 @@
+package manager.task;
+
+// flushIntervalMillis = 0 — синхронная запись при каждой операции (поведение по умолчанию).
+// Durability: EVERY_OP — запись и fsync до возврата из каждой операции, даже в режиме отложенной записи;
+// BATCHED — fsync один раз на пакет изменений; NONE — без fsync.
+// format задаёт формат записи снимка; при загрузке формат определяется по содержимому файла.
+// mappedLoad — бинарный снимок отображается в память и задачи разбираются по первому обращению.
+public record PersistenceConfig(boolean journal, int compactionThreshold, long flushIntervalMillis,
+                                int maxPendingChanges, Durability durability, SnapshotFormat format,
+                                boolean mappedLoad) {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    public static final int DEFAULT_MAX_PENDING_CHANGES = 500;
+
+    public PersistenceConfig {
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Порог сжатия журнала должен быть положительным");
+        }
+        if (flushIntervalMillis < 0) {
+            throw new IllegalArgumentException("Интервал сброса не может быть отрицательным");
+        }
+        if (maxPendingChanges <= 0) {
+            throw new IllegalArgumentException("Порог несохранённых изменений должен быть положительным");
+        }
+        if (durability == null) {
+            throw new IllegalArgumentException("Не указан уровень надёжности записи");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Не указан формат снимка");
+        }
+    }
+
+    public static PersistenceConfig snapshot() {
+        return new PersistenceConfig(false, DEFAULT_COMPACTION_THRESHOLD, 0, DEFAULT_MAX_PENDING_CHANGES,
+                Durability.NONE, SnapshotFormat.CSV, false);
+    }
+
+    public static PersistenceConfig journal(int compactionThreshold) {
+        return new PersistenceConfig(true, compactionThreshold, 0, DEFAULT_MAX_PENDING_CHANGES, Durability.NONE,
+                SnapshotFormat.CSV, false);
+    }
+
+    public PersistenceConfig withWriteBehind(long flushIntervalMillis, int maxPendingChanges) {
+        return new PersistenceConfig(journal, compactionThreshold, flushIntervalMillis, maxPendingChanges,
+                durability, format, mappedLoad);
+    }
+
+    public PersistenceConfig withDurability(Durability durability) {
+        return new PersistenceConfig(journal, compactionThreshold, flushIntervalMillis, maxPendingChanges,
+                durability, format, mappedLoad);
+    }
+
+    public PersistenceConfig withFormat(SnapshotFormat format) {
+        return new PersistenceConfig(journal, compactionThreshold, flushIntervalMillis, maxPendingChanges,
+                durability, format, mappedLoad);
+    }
+
+    public PersistenceConfig withMappedLoad(boolean mappedLoad) {
+        return new PersistenceConfig(journal, compactionThreshold, flushIntervalMillis, maxPendingChanges,
+                durability, format, mappedLoad);
+    }
+
+    public boolean writeBehind() {
+        return flushIntervalMillis > 0 && durability != Durability.EVERY_OP;
+    }
+}
@@ -0,0 +1,272 @@
+package manager.task;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Неизменяемое сбалансированное (AVL) дерево поиска с копированием пути: put и remove возвращают
+// новое дерево, создавая O(log n) узлов, а остальные узлы общие с исходным. Узлы хранят размер
+// поддерева, поэтому values() — представление в виде списка без копирования, get(i) за O(log n).
+public class PersistentTree<K, V> {
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+
+    private PersistentTree(Comparator<? super K> comparator, Node<K, V> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <K extends Comparable<? super K>, V> PersistentTree<K, V> empty() {
+        return new PersistentTree<>(Comparator.naturalOrder(), null);
+    }
+
+    public static <K, V> PersistentTree<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentTree<>(comparator, null);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) return node.value;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    public PersistentTree<K, V> put(K key, V value) {
+        return new PersistentTree<>(comparator, insert(root, key, value));
+    }
+
+    public PersistentTree<K, V> remove(K key) {
+        if (!containsKey(key)) return this;
+        return new PersistentTree<>(comparator, delete(root, key));
+    }
+
+    public PersistentTree<K, V> clear() {
+        return root == null ? this : new PersistentTree<>(comparator, null);
+    }
+
+    public V valueAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Индекс " + index + " вне диапазона 0.." + (size() - 1));
+        }
+        Node<K, V> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index == leftSize) return node.value;
+            if (index < leftSize) {
+                node = node.left;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    // Неизменяемый список значений по возрастанию ключа
+    public List<V> values() {
+        return new AbstractList<>() {
+            @Override
+            public V get(int index) {
+                return valueAt(index);
+            }
+
+            @Override
+            public int size() {
+                return PersistentTree.this.size();
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator<>(root);
+            }
+        };
+    }
+
+    // Не больше limit значений с ключом строго больше key по возрастанию; null — с наименьшего ключа.
+    // Обходит только узлы справа от key, поэтому страница стоит O(log n + limit)
+    public List<V> valuesAfter(K key, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Размер страницы не может быть отрицательным");
+        }
+        return collect(key, false, null, limit);
+    }
+
+    // Значения с ключами из [from, to) по возрастанию за O(log n + размер ответа)
+    public List<V> valuesBetween(K from, K to) {
+        return collect(from, true, to, Integer.MAX_VALUE);
+    }
+
+    // Значение с наибольшим ключом строго меньше key или null
+    public V lowerValue(K key) {
+        V result = null;
+        Node<K, V> node = root;
+        while (node != null) {
+            if (comparator.compare(node.key, key) < 0) {
+                result = node.value;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    // Ленивый обход значений по возрастанию, начиная с ключа не меньше key; null — с наименьшего ключа
+    public Iterator<V> iteratorFrom(K key) {
+        return new ValueIterator<>(root, comparator, key, true);
+    }
+
+    // Ленивый обход значений по возрастанию, начиная с ключа строго больше key
+    public Iterator<V> iteratorAfter(K key) {
+        return new ValueIterator<>(root, comparator, key, false);
+    }
+
+    private List<V> collect(K from, boolean inclusive, K to, int limit) {
+        List<V> result = new ArrayList<>(Math.min(limit, size()));
+        ValueIterator<K, V> values = new ValueIterator<>(root, comparator, from, inclusive);
+        while (values.hasNext() && result.size() < limit) {
+            if (to != null && comparator.compare(values.peekKey(), to) >= 0) break;
+            result.add(values.next());
+        }
+        return result;
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value) {
+        if (node == null) return new Node<>(key, value, null, null);
+        int cmp = comparator.compare(key, node.key);
+        if (cmp < 0) return balance(node.key, node.value, insert(node.left, key, value), node.right);
+        if (cmp > 0) return balance(node.key, node.value, node.left, insert(node.right, key, value));
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    private Node<K, V> delete(Node<K, V> node, K key) {
+        int cmp = comparator.compare(key, node.key);
+        if (cmp < 0) return balance(node.key, node.value, delete(node.left, key), node.right);
+        if (cmp > 0) return balance(node.key, node.value, node.left, delete(node.right, key));
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+        Node<K, V> min = node.right;
+        while (min.left != null) min = min.left;
+        return balance(min.key, min.value, node.left, deleteMin(node.right));
+    }
+
+    private Node<K, V> deleteMin(Node<K, V> node) {
+        if (node.left == null) return node.right;
+        return balance(node.key, node.value, deleteMin(node.left), node.right);
+    }
+
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int diff = height(left) - height(right);
+        if (diff > 1) {
+            if (height(left.left) < height(left.right)) {
+                Node<K, V> pivot = left.right;
+                return new Node<>(pivot.key, pivot.value,
+                        new Node<>(left.key, left.value, left.left, pivot.left),
+                        new Node<>(key, value, pivot.right, right));
+            }
+            return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+        }
+        if (diff < -1) {
+            if (height(right.right) < height(right.left)) {
+                Node<K, V> pivot = right.left;
+                return new Node<>(pivot.key, pivot.value,
+                        new Node<>(key, value, left, pivot.left),
+                        new Node<>(right.key, right.value, pivot.right, right.right));
+            }
+            return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int height;
+        final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private static final class ValueIterator<K, V> implements Iterator<V> {
+        private final Deque<Node<K, V>> stack = new ArrayDeque<>();
+
+        ValueIterator(Node<K, V> root) {
+            pushLeft(root);
+        }
+
+        // Спуск к первому ключу после from (или равному ему, если inclusive): меньшие ключи
+        // и их левые поддеревья в стек не попадают
+        ValueIterator(Node<K, V> root, Comparator<? super K> comparator, K from, boolean inclusive) {
+            Node<K, V> node = root;
+            while (node != null) {
+                int cmp = from == null ? 1 : comparator.compare(node.key, from);
+                if (cmp > 0 || inclusive && cmp == 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        K peekKey() {
+            return stack.peek().key;
+        }
+
+        private void pushLeft(Node<K, V> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public V next() {
+            if (stack.isEmpty()) throw new NoSuchElementException();
+            Node<K, V> node = stack.pop();
+            pushLeft(node.right);
+            return node.value;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package manager.task;
+
+import manager.history.HistoryEntry;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import model.TimeSlot;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+// Менеджер с одним потоком-писателем. Изменения становятся командами в очереди; писатель забирает
+// их пачками до maxBatchSize, применяет к VersionedTaskManager внутри одного inBatch (одна публикация
+// версии и одна копия каждого затронутого эпика на пачку) и после публикации завершает future команд.
+// Чтение идёт из последней опубликованной версии без очереди. Синхронные методы TaskManager ждут
+// свою команду, поэтому id и исключения (IntersectionException, NotFoundException) видны как обычно,
+// а изменение видно тому же потоку сразу после возврата.
+public class QueuedTaskManager implements TaskManager, Closeable {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+    private final VersionedTaskManager state = new VersionedTaskManager();
+    private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+    private final int maxBatchSize;
+    private final Thread writer;
+    // Проверка closed и постановка в очередь идут под одной блокировкой, иначе команда
+    // могла бы встать в очередь после STOP и никогда не завершиться
+    private final Object lifecycle = new Object();
+    private volatile boolean closed;
+
+    private record Command(Consumer<TaskManager> action, CompletableFuture<Void> result) {
+    }
+
+    private static final Command STOP = new Command(manager -> {
+    }, new CompletableFuture<>());
+
+    public QueuedTaskManager() {
+        this(DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public QueuedTaskManager(int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Размер пачки должен быть положительным");
+        }
+        this.maxBatchSize = maxBatchSize;
+        writer = new Thread(this::runWriter, "task-manager-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Ставит произвольное изменение в очередь; future завершается после публикации пачки
+    public CompletableFuture<Void> submit(Consumer<TaskManager> action) {
+        Command command = new Command(action, new CompletableFuture<>());
+        synchronized (lifecycle) {
+            if (closed) {
+                throw new IllegalStateException("Менеджер закрыт");
+            }
+            queue.add(command);
+        }
+        return command.result();
+    }
+
+    public VersionedTaskManager.Version currentVersion() {
+        return state.currentVersion();
+    }
+
+    @Override
+    public void close() {
+        synchronized (lifecycle) {
+            if (closed) return;
+            closed = true;
+            queue.add(STOP);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(Consumer<TaskManager> action) {
+        try {
+            submit(action).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void runWriter() {
+        List<Command> batch = new ArrayList<>(maxBatchSize);
+        List<Throwable> failures = new ArrayList<>(maxBatchSize);
+        boolean stopping = false;
+        try {
+            while (!stopping) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                stopping = batch.remove(STOP);
+                try {
+                    state.inBatch(() -> {
+                        for (Command command : batch) {
+                            // Error одной команды (StackOverflowError, AssertionError) не должен
+                            // остановить писателя: иначе все ожидающие execute зависнут на join
+                            try {
+                                command.action().accept(state);
+                                failures.add(null);
+                            } catch (Throwable e) {
+                                failures.add(e);
+                            }
+                        }
+                    });
+                } catch (Throwable e) {
+                    // Пачка не опубликована: команды без собственного результата получают эту ошибку
+                    while (failures.size() < batch.size()) failures.add(e);
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    Throwable failure = failures.get(i);
+                    if (failure == null) {
+                        batch.get(i).result().complete(null);
+                    } else {
+                        batch.get(i).result().completeExceptionally(failure);
+                    }
+                }
+                batch.clear();
+                failures.clear();
+            }
+        } finally {
+            synchronized (lifecycle) {
+                closed = true;
+            }
+            // Команды, поставленные после остановки или оставшиеся после сбоя писателя, уже не будут выполнены
+            IllegalStateException rejected = new IllegalStateException("Менеджер закрыт");
+            batch.forEach(command -> command.result().completeExceptionally(rejected));
+            Command left;
+            while ((left = queue.poll()) != null) {
+                left.result().completeExceptionally(rejected);
+            }
+        }
+    }
+
+    @Override
+    public long getVersion() {
+        return state.getVersion();
+    }
+
+    @Override
+    public long getVersion(TaskType type) {
+        return state.getVersion(type);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return state.getPrioritizedTasks();
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return state.getHistory();
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return state.getTaskById(id);
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return state.getEpicById(id);
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return state.getSubtaskById(id);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return state.getAllTasks();
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return state.getAllEpics();
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return state.getAllSubtasks();
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        return state.getSubtasksByEpicId(epicId);
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return state.getTasks(afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return state.getEpics(afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return state.getSubtasks(afterId, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(Task after, int limit) {
+        return state.getPrioritizedTasks(after, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to) {
+        return state.getPrioritizedTasksBetween(from, to);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to, Task after, int limit) {
+        return state.getPrioritizedTasksBetween(from, to, after, limit);
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to, int limit) {
+        return state.findFreeSlots(duration, from, to, limit);
+    }
+
+    @Override
+    public List<HistoryEntry> getHistory(int afterId, long afterView, int limit) {
+        return state.getHistory(afterId, afterView, limit);
+    }
+
+    @Override
+    public void applyAll(List<BatchOperation> operations) {
+        execute(manager -> manager.applyAll(operations));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        execute(manager -> manager.createTask(task));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        execute(manager -> manager.createEpic(epic));
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        execute(manager -> manager.createSubtask(subtask));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        execute(manager -> manager.updateTask(task));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        execute(manager -> manager.updateEpic(epic));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        execute(manager -> manager.updateSubtask(subtask));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        execute(manager -> manager.deleteTaskById(id));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        execute(manager -> manager.deleteEpicById(id));
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        execute(manager -> manager.deleteSubtaskById(id));
+    }
+
+    @Override
+    public void clearTasks() {
+        execute(TaskManager::clearTasks);
+    }
+
+    @Override
+    public void clearEpics() {
+        execute(TaskManager::clearEpics);
+    }
+
+    @Override
+    public void clearSubtasks() {
+        execute(TaskManager::clearSubtasks);
+    }
+}
@@ -0,0 +1,46 @@
+package manager.task;
+
+import manager.task.exception.ManagerSaveException;
+import model.Task;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Преобразование снимков между CSV и бинарным форматом без построения менеджера
+public class SnapshotConverter {
+    private SnapshotConverter() {
+    }
+
+    public static void csvToBinary(File csv, File binary) {
+        try (CSVRowReader row = new CSVRowReader(Files.newBufferedReader(csv.toPath(), StandardCharsets.UTF_8));
+             BinarySnapshotWriter writer = new BinarySnapshotWriter(new FileOutputStream(binary))) {
+            row.next();
+            while (row.next() && !row.isBlank()) {
+                writer.write(CSVFormatter.fromRow(row));
+            }
+            writer.writeHistory(row.next() ? CSVFormatter.historyFromRow(row) : List.of());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка преобразования снимка", e);
+        }
+    }
+
+    public static void binaryToCsv(File binary, File csv) {
+        BinarySnapshotReader reader = BinarySnapshotReader.open(binary);
+        try (BufferedWriter writer = Files.newBufferedWriter(csv.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(CSVFormatter.getHeader());
+            writer.newLine();
+            Task task;
+            while ((task = reader.next()) != null) {
+                CSVFormatter.write(task, writer);
+                writer.newLine();
+            }
+            writer.newLine();
+            writer.write(reader.readHistory().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка преобразования снимка", e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package manager.task;
+
+import manager.task.exception.BatchException;
+import manager.task.exception.IntersectionException;
+import manager.task.exception.NotFoundException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+// Проверка и применение пачки операций (TaskManager.applyAll). Проверка идёт по операциям в порядке
+// пачки поверх текущего состояния менеджера, не меняя его: изменения пачки копятся в наложении, так что
+// каждая операция видит результат предыдущих, а задачи пачки проверяются на пересечение и друг с другом.
+// Менеджер вызывает validate и apply под своей блокировкой записи; если validate прошла, операции
+// применяются теми же методами, что и по одной, и не могут завершиться ошибкой.
+final class TaskBatch {
+    // Чтение состояния менеджера без записи в историю; intersecting — задачи, пересекающие [start, end]
+    record State(IntFunction<Task> task, IntFunction<Epic> epic, IntFunction<Subtask> subtask,
+                 BiFunction<LocalDateTime, LocalDateTime, List<Task>> intersecting) {
+    }
+
+    private final State state;
+    // id -> объект после уже проверенных операций; null — задача удалена. Задачи, созданные пачкой,
+    // хранятся под временным id BatchOperation.epicRef(индекс операции)
+    private final Map<Integer, Task> changed = new HashMap<>();
+    private final Map<Integer, List<Integer>> createdSubtasks = new HashMap<>();
+    private final TaskIntervalTree added = new TaskIntervalTree();
+
+    private TaskBatch(State state) {
+        this.state = state;
+    }
+
+    static void validate(List<BatchOperation> operations, State state) {
+        TaskBatch batch = new TaskBatch(state);
+        for (int i = 0; i < operations.size(); i++) {
+            try {
+                batch.check(i, operations.get(i));
+            } catch (NotFoundException | IllegalArgumentException e) {
+                throw new BatchException(i, e);
+            }
+        }
+    }
+
+    static void apply(List<BatchOperation> operations, TaskManager manager) {
+        for (BatchOperation operation : operations) {
+            switch (operation.kind()) {
+                case CREATE -> create(operations, operation.task(), manager);
+                case UPDATE -> {
+                    switch (operation.type()) {
+                        case TASK -> manager.updateTask(operation.task());
+                        case EPIC -> manager.updateEpic((Epic) operation.task());
+                        case SUBTASK -> manager.updateSubtask((Subtask) operation.task());
+                    }
+                }
+                case DELETE -> {
+                    switch (operation.type()) {
+                        case TASK -> manager.deleteTaskById(operation.id());
+                        case EPIC -> manager.deleteEpicById(operation.id());
+                        case SUBTASK -> manager.deleteSubtaskById(operation.id());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void create(List<BatchOperation> operations, Task task, TaskManager manager) {
+        if (task instanceof Epic epic) {
+            manager.createEpic(epic);
+        } else if (task instanceof Subtask subtask) {
+            if (subtask.getEpicId() >= 0) {
+                manager.createSubtask(subtask);
+                return;
+            }
+            // epicId подзадачи неизменяем: сохраняется копия с настоящим id эпика, id копии возвращается в исходный объект
+            int epicId = operations.get(-subtask.getEpicId() - 1).task().getId();
+            Subtask resolved = new Subtask(subtask.getName(), subtask.getDescription(), subtask.getStatus(), epicId,
+                    subtask.getStartTime(), subtask.getDuration());
+            manager.createSubtask(resolved);
+            subtask.setId(resolved.getId());
+        } else {
+            manager.createTask(task);
+        }
+    }
+
+    private void check(int index, BatchOperation operation) {
+        Task task = operation.task();
+        if (task != null && task.getType() != operation.type()) {
+            throw new IllegalArgumentException("Тип задачи " + task.getType() + " не совпадает с " + operation.type());
+        }
+        switch (operation.kind()) {
+            case CREATE -> checkCreate(BatchOperation.epicRef(index), task);
+            case UPDATE -> checkUpdate(operation.id(), task);
+            case DELETE -> checkDelete(operation.type(), operation.id());
+        }
+    }
+
+    private void checkCreate(int key, Task task) {
+        if (task instanceof Subtask subtask) {
+            if (find(TaskType.EPIC, subtask.getEpicId()) == null) {
+                throw new NotFoundException("Эпик с id " + subtask.getEpicId() + " не найден");
+            }
+            createdSubtasks.computeIfAbsent(subtask.getEpicId(), id -> new ArrayList<>()).add(key);
+        }
+        if (!(task instanceof Epic)) {
+            checkIntersection(task, key);
+            added.add(task, key);
+        }
+        changed.put(key, task);
+    }
+
+    private void checkUpdate(int id, Task task) {
+        Task stored = id <= 0 ? null : find(task.getType(), id);
+        if (stored == null) {
+            throw new NotFoundException(notFound(task.getType(), id));
+        }
+        // Обновление не переносит подзадачу: ConcurrentTaskManager такой перенос отклоняет, а остальные
+        // менеджеры пересчитали бы только старый эпик
+        if (task instanceof Subtask subtask && subtask.getEpicId() != ((Subtask) stored).getEpicId()) {
+            throw new IllegalArgumentException("Подзадачу нельзя перенести в другой эпик");
+        }
+        if (task instanceof Epic) return;
+        checkIntersection(task, id);
+        added.add(task, id);
+        changed.put(id, task);
+    }
+
+    private void checkDelete(TaskType type, int id) {
+        // Как и deleteXxxById, удаление отсутствующей задачи ничего не делает
+        if (id <= 0 || find(type, id) == null) return;
+        if (type == TaskType.EPIC) {
+            Epic epic = state.epic().apply(id);
+            if (epic != null) {
+                epic.getSubtaskIds().forEach(this::markDeleted);
+            }
+            createdSubtasks.getOrDefault(id, List.of()).forEach(this::markDeleted);
+        }
+        markDeleted(id);
+    }
+
+    private void markDeleted(int id) {
+        changed.put(id, null);
+        added.remove(id);
+    }
+
+    private Task find(TaskType type, int id) {
+        Task task;
+        if (changed.containsKey(id)) {
+            task = changed.get(id);
+        } else {
+            task = switch (type) {
+                case TASK -> state.task().apply(id);
+                case EPIC -> state.epic().apply(id);
+                case SUBTASK -> state.subtask().apply(id);
+            };
+        }
+        return task != null && task.getType() == type ? task : null;
+    }
+
+    // Пересечение с задачами менеджера, которые пачка не меняла и не удаляла, и с задачами самой пачки
+    private void checkIntersection(Task task, int key) {
+        if (task.getStartTime() == null || task.getDuration() == null) return;
+        for (Task existing : state.intersecting().apply(task.getStartTime(), task.getEndTime())) {
+            if (existing.getId() != key && !changed.containsKey(existing.getId())) {
+                throw new IntersectionException();
+            }
+        }
+        if (added.hasIntersection(task.getStartTime(), task.getEndTime(), key)) {
+            throw new IntersectionException();
+        }
+    }
+
+    private static String notFound(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> "Задача с id " + id + " не найдена";
+            case EPIC -> "Эпик с id " + id + " не найден";
+            case SUBTASK -> "Подзадача с id " + id + " не найдена";
+        };
+    }
+}
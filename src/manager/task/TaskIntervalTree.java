@@ -0,0 +1,245 @@
+package manager.task;
+
+import model.Task;
+import util.IntHashMap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// AVL-дерево интервалов [startTime, endTime], упорядоченное по (startTime, id)
+// и дополненное максимальным концом интервала в поддереве.
+// Границы интервалов включительные — так же, как в исходной линейной проверке пересечений.
+public class TaskIntervalTree {
+    private Node root;
+    private final IntHashMap<Node> nodes = new IntHashMap<>();
+
+    public void add(Task task) {
+        if (task == null) return;
+        add(task, task.getId());
+    }
+
+    // Добавляет интервал задачи под ключом id, который может отличаться от task.getId(), заменяя прежний.
+    // Задача без startTime или duration только убирает прежний интервал
+    void add(Task task, int id) {
+        remove(id);
+        if (task.getStartTime() == null || task.getDuration() == null) return;
+        Node node = new Node(task, id);
+        root = insert(root, node);
+        nodes.put(node.id, node);
+    }
+
+    public void remove(int id) {
+        Node node = nodes.remove(id);
+        if (node != null) {
+            root = delete(root, node.start, node.id);
+        }
+    }
+
+    public void clear() {
+        root = null;
+        nodes.clear();
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean hasIntersection(Task task) {
+        if (task.getStartTime() == null || task.getDuration() == null) return false;
+        return hasIntersection(task.getStartTime(), task.getEndTime(), task.getId());
+    }
+
+    public boolean hasIntersection(LocalDateTime start, LocalDateTime end, int excludedId) {
+        return anyIntersection(root, start, end, excludedId);
+    }
+
+    public List<Task> findIntersecting(LocalDateTime start, LocalDateTime end) {
+        List<Task> result = new ArrayList<>();
+        collectIntersecting(root, start, end, result);
+        return result;
+    }
+
+    // Задачи, пересекающие полуоткрытое окно [from, to), по возрастанию (startTime, id).
+    // null — окно не ограничено с этой стороны. Обходятся только поддеревья, где пересечение возможно
+    public List<Task> findInWindow(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from == null ? LocalDateTime.MIN : from;
+        LocalDateTime end = to == null ? LocalDateTime.MAX : to;
+        List<Task> result = new ArrayList<>();
+        collectIntersecting(root, start, end, result);
+        result.removeIf(task -> !inWindow(task, start, end));
+        return result;
+    }
+
+    // Страница окна [from, to): не больше limit задач строго после after в порядке order; null — с начала окна.
+    // Запланированные задачи не пересекаются, поэтому окно в этом порядке — непрерывный участок: из начавшихся
+    // до from его может задеть только последняя, остальные начинаются в [from, to). Обход начинается с курсора
+    // или с from (higher — задачи строго после ключа) и останавливается на limit задачах или на to
+    static List<Task> windowPage(LocalDateTime from, LocalDateTime to, Task after, int limit,
+                                 Comparator<? super Task> order, UnaryOperator<Task> lower,
+                                 Function<Task, Iterator<Task>> higher) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Размер страницы не может быть отрицательным");
+        }
+        LocalDateTime start = from == null ? LocalDateTime.MIN : from;
+        LocalDateTime end = to == null ? LocalDateTime.MAX : to;
+        List<Task> result = new ArrayList<>();
+        Task seek = FreeSlotFinder.probe(start);
+        if (after == null || order.compare(after, seek) < 0) {
+            Task before = FreeSlotFinder.lastScheduledBefore(start, lower);
+            if (before != null && inWindow(before, start, end) && limit > 0
+                    && (after == null || order.compare(before, after) > 0)) {
+                result.add(before);
+            }
+        } else {
+            seek = after;
+        }
+        Iterator<Task> tasks = higher.apply(seek);
+        while (result.size() < limit && tasks.hasNext()) {
+            Task task = tasks.next();
+            if (task.getStartTime() == null || !task.getStartTime().isBefore(end)) break;
+            if (inWindow(task, start, end)) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    // Задача [startTime, endTime) лежит в окне [from, to); задача нулевой длины — точка,
+    // она попадает в окно, если from <= startTime < to
+    static boolean inWindow(Task task, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = task.getStartTime();
+        LocalDateTime end = task.getEndTime();
+        if (start == null || end == null || !start.isBefore(to)) return false;
+        return end.isAfter(from) || !start.isBefore(from);
+    }
+
+    private boolean anyIntersection(Node node, LocalDateTime start, LocalDateTime end, int excludedId) {
+        if (node == null || node.maxEnd.isBefore(start)) return false;
+        if (anyIntersection(node.left, start, end, excludedId)) return true;
+        if (node.start.isAfter(end)) return false;
+        if (node.id != excludedId && !node.end.isBefore(start)) return true;
+        return anyIntersection(node.right, start, end, excludedId);
+    }
+
+    private void collectIntersecting(Node node, LocalDateTime start, LocalDateTime end, List<Task> result) {
+        if (node == null || node.maxEnd.isBefore(start)) return;
+        collectIntersecting(node.left, start, end, result);
+        if (node.start.isAfter(end)) return;
+        if (!node.end.isBefore(start)) result.add(node.task);
+        collectIntersecting(node.right, start, end, result);
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) return added;
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, LocalDateTime start, int id) {
+        if (node == null) return null;
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node deleteMin(Node node) {
+        if (node.left == null) return node.right;
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private int compare(LocalDateTime start, int id, Node node) {
+        int cmp = start.compareTo(node.start);
+        return cmp != 0 ? cmp : Integer.compare(id, node.id);
+    }
+
+    private Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime max = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(max)) max = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd.isAfter(max)) max = node.right.maxEnd;
+        node.maxEnd = max;
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Node {
+        private final Task task;
+        private final int id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(Task task, int id) {
+            this.task = task;
+            this.id = id;
+            this.start = task.getStartTime();
+            this.end = task.getEndTime();
+            this.maxEnd = end;
+        }
+    }
+}
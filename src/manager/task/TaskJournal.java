@@ -0,0 +1,179 @@
+package manager.task;
+
+import manager.task.exception.ManagerSaveException;
+import model.Task;
+import model.TaskType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+// Журнал изменений: по одной записи на операцию, дописывается в конец файла.
+// Воспроизводится поверх последнего полного снимка в FileBackedTaskManager.loadFromFile.
+public class TaskJournal implements Closeable {
+    public static final String PUT = "PUT";
+    public static final String DELETE = "DEL";
+    public static final String CLEAR = "CLEAR";
+    public static final String VIEW = "VIEW";
+
+    private final File file;
+    private FileOutputStream output;
+    private BufferedWriter writer;
+    private int size;
+
+    public TaskJournal(File file) {
+        this.file = file;
+    }
+
+    public static File journalFileFor(File snapshot) {
+        return new File(snapshot.getPath() + ".journal");
+    }
+
+    public static String put(Task task) {
+        return PUT + "," + CSVFormatter.toString(task);
+    }
+
+    public static String delete(int id) {
+        return DELETE + "," + id;
+    }
+
+    public static String clear(TaskType type) {
+        return CLEAR + "," + type;
+    }
+
+    public static String view(int id) {
+        return VIEW + "," + id;
+    }
+
+    public static String kind(String record) {
+        int comma = record.indexOf(',');
+        return comma < 0 ? record : record.substring(0, comma);
+    }
+
+    public static String payload(String record) {
+        int comma = record.indexOf(',');
+        return comma < 0 ? "" : record.substring(comma + 1);
+    }
+
+    public static List<String> readRecords(File file) {
+        if (!file.exists()) return List.of();
+        byte[] content = readBytes(file);
+        // Последняя запись без перевода строки могла быть записана не полностью — пропускаем её
+        String complete = new String(content, 0, completeLength(content), StandardCharsets.UTF_8);
+        List<String> records = new ArrayList<>();
+        int start = 0;
+        boolean quoted = false;
+        // Перевод строки внутри кавычек принадлежит полю
+        for (int i = 0; i < complete.length(); i++) {
+            char c = complete.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n' && !quoted) {
+                String record = complete.substring(start, i);
+                if (!record.isBlank()) records.add(record);
+                start = i + 1;
+            }
+        }
+        return records;
+    }
+
+    // Обрезает недописанную последнюю запись. Вызывается при загрузке до первой новой записи:
+    // иначе она продолжила бы обрывок, и обе записи склеились бы в одну нечитаемую строку
+    public static void truncateTornTail(File file) {
+        if (!file.exists()) return;
+        int length = completeLength(readBytes(file));
+        if (length == file.length()) return;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+            raf.getFD().sync();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка восстановления журнала", e);
+        }
+    }
+
+    // Длина в байтах до конца последней полной записи. '"' и '\n' в UTF-8 однобайтовые,
+    // поэтому байты можно просматривать без декодирования
+    private static int completeLength(byte[] content) {
+        int length = 0;
+        boolean quoted = false;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '"') {
+                quoted = !quoted;
+            } else if (content[i] == '\n' && !quoted) {
+                length = i + 1;
+            }
+        }
+        return length;
+    }
+
+    private static byte[] readBytes(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала", e);
+        }
+    }
+
+    public void append(String record) {
+        try {
+            if (writer == null) {
+                output = new FileOutputStream(file, true);
+                writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            }
+            writer.write(record);
+            writer.write('\n');
+            size++;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи журнала", e);
+        }
+    }
+
+    public void flush(boolean sync) {
+        if (writer == null) return;
+        try {
+            writer.flush();
+            if (sync) {
+                output.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи журнала", e);
+        }
+    }
+
+    public void reset() {
+        close();
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка очистки журнала", e);
+        }
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка закрытия журнала", e);
+        } finally {
+            writer = null;
+            output = null;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package manager.task;
 
+import manager.history.HistoryEntry;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskType;
+import model.TimeSlot;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TaskManager {
@@ -42,6 +47,12 @@ public interface TaskManager {
 
     void clearSubtasks();
 
+    // Применяет операции по порядку, все или ни одной. Пачка проверяется целиком до первого изменения:
+    // пересечения по времени — и с задачами менеджера, и между задачами пачки. При ошибке бросается
+    // BatchException с номером операции и исходным исключением, состояние не меняется.
+    // Файловый менеджер сохраняет пачку один раз
+    void applyAll(List<BatchOperation> operations);
+
     List<Task> getAllTasks();
 
     List<Epic> getAllEpics();
@@ -49,4 +60,39 @@ public interface TaskManager {
     List<Subtask> getAllSubtasks();
 
     List<Subtask> getSubtasksByEpicId(int epicId);
+
+    // Страницы коллекций: не больше limit элементов с id больше afterId по возрастанию id.
+    // Коллекция целиком не копируется
+    List<Task> getTasks(int afterId, int limit);
+
+    List<Epic> getEpics(int afterId, int limit);
+
+    List<Subtask> getSubtasks(int afterId, int limit);
+
+    // Страница списка по приоритету: задачи строго после after в порядке getPrioritizedTasks()
+    // (сравниваются startTime и id, сама задача after может быть уже удалена); null — с начала
+    List<Task> getPrioritizedTasks(Task after, int limit);
+
+    // Задачи и подзадачи, пересекающие окно [from, to), в порядке getPrioritizedTasks(); null — без границы.
+    // Задачи без startTime или duration в окно не попадают. Стоимость зависит от размера ответа, а не доски
+    List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to);
+
+    // Страница окна: не больше limit задач из getPrioritizedTasksBetween(from, to) строго после after.
+    // Курсор ищется в индексе, поэтому страница не зависит от размера окна
+    List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to, Task after, int limit);
+
+    // Не больше limit свободных промежутков между from и to, куда помещается задача длительностью duration,
+    // по возрастанию времени. Задача, которая начинается не раньше start промежутка и заканчивается не позже
+    // его end, создаётся без IntersectionException
+    List<TimeSlot> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to, int limit);
+
+    // Страница истории после просмотра afterView задачи afterId, см. HistoryManager.getHistory
+    List<HistoryEntry> getHistory(int afterId, long afterView, int limit);
+
+    // Номер последнего изменения любой коллекции; только растёт
+    long getVersion();
+
+    // Номер последнего изменения коллекции задач данного типа. Изменение подзадач меняет и версию
+    // эпиков, так как их статус и время пересчитываются
+    long getVersion(TaskType type);
 }
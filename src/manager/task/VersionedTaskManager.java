@@ -0,0 +1,541 @@
+package manager.task;
+
+import manager.Managers;
+import manager.history.HistoryEntry;
+import manager.history.HistoryManager;
+import manager.task.exception.IntersectionException;
+import manager.task.exception.NotFoundException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import model.TimeSlot;
+import util.IntHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Менеджер с многоверсионным чтением (MVCC). Состояние — неизменяемая версия из PersistentTree,
+// каждая запись строит следующую версию (общие с предыдущей узлы не копируются) и публикует её
+// одной volatile-записью. Чтение берёт текущую версию без блокировок и копирования.
+//
+// Гарантии:
+// - запись видна читателям только целиком, после публикации версии; записи выполняются по одной;
+// - список, полученный из getAll* или getPrioritizedTasks, — срез одной версии и не меняется
+//   от последующих записей; для нескольких согласованных чтений используйте currentVersion();
+// - объекты задач в опубликованной версии менеджер не изменяет: эпик при пересчёте копируется.
+//   Объекты, переданные в create/update, хранятся как есть, вызывающий не должен менять их после передачи;
+// - история просмотров не версионируется и защищена собственной блокировкой.
+public class VersionedTaskManager implements TaskManager {
+    private static final Comparator<Task> PRIORITY = Comparator
+            .comparing(Task::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Task::getId);
+
+    public record Version(long number,
+                          PersistentTree<Integer, Task> tasks,
+                          PersistentTree<Integer, Epic> epics,
+                          PersistentTree<Integer, Subtask> subtasks,
+                          PersistentTree<Task, Task> prioritized) {
+
+        public List<Subtask> getSubtasksByEpicId(int epicId) {
+            Epic epic = epics.get(epicId);
+            if (epic == null) {
+                throw new NotFoundException("Эпик с id " + epicId + " не найден");
+            }
+            List<Subtask> result = new ArrayList<>(epic.getSubtaskIds().size());
+            for (int sid : epic.getSubtaskIds()) {
+                Subtask subtask = subtasks.get(sid);
+                if (subtask != null) result.add(subtask);
+            }
+            return result;
+        }
+    }
+
+    private volatile Version current = new Version(0, PersistentTree.empty(), PersistentTree.empty(),
+            PersistentTree.empty(), PersistentTree.empty(PRIORITY));
+
+    // Состояние писателя, доступно только под writeLock. working — последняя версия с учётом
+    // ещё не опубликованных изменений пакета
+    private final Object writeLock = new Object();
+    private Version working = current;
+    private boolean batching;
+    private final Set<Integer> epicsCopiedInBatch = new HashSet<>();
+    // Удалённые в пакете задачи убираются из истории после публикации версии
+    private final List<Integer> removedInBatch = new ArrayList<>();
+    private int nextId = 1;
+    private final TaskIntervalTree timeIndex = new TaskIntervalTree();
+    private final IntHashMap<EpicRollup> epicRollups = new IntHashMap<>();
+
+    private final HistoryManager historyManager = Managers.getDefaultHistory();
+
+    public Version currentVersion() {
+        return current;
+    }
+
+    @Override
+    public long getVersion() {
+        return current.number();
+    }
+
+    // Версии не разделены по коллекциям: любая запись меняет номер для всех типов
+    @Override
+    public long getVersion(TaskType type) {
+        return current.number();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return current.prioritized().values();
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> viewed;
+        synchronized (historyManager) {
+            viewed = historyManager.getHistory();
+        }
+        return resolve(viewed);
+    }
+
+    @Override
+    public List<Task> getTasks(int afterId, int limit) {
+        return current.tasks().valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpics(int afterId, int limit) {
+        return current.epics().valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasks(int afterId, int limit) {
+        return current.subtasks().valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(Task after, int limit) {
+        return current.prioritized().valuesAfter(after, limit);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to) {
+        return getPrioritizedTasksBetween(from, to, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksBetween(LocalDateTime from, LocalDateTime to, Task after, int limit) {
+        PersistentTree<Task, Task> prioritized = current.prioritized();
+        return TaskIntervalTree.windowPage(from, to, after, limit, PRIORITY,
+                prioritized::lowerValue, prioritized::iteratorAfter);
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to, int limit) {
+        PersistentTree<Task, Task> prioritized = current.prioritized();
+        Task before = from == null ? null : FreeSlotFinder.lastScheduledBefore(from, prioritized::lowerValue);
+        return FreeSlotFinder.find(before, prioritized.iteratorFrom(FreeSlotFinder.probe(from)),
+                duration, from, to, limit);
+    }
+
+    @Override
+    public List<HistoryEntry> getHistory(int afterId, long afterView, int limit) {
+        List<HistoryEntry> viewed;
+        synchronized (historyManager) {
+            viewed = historyManager.getHistory(afterId, afterView, limit);
+        }
+        Version version = current;
+        List<HistoryEntry> result = new ArrayList<>(viewed.size());
+        for (HistoryEntry entry : viewed) {
+            Task actual = find(version, entry.task());
+            if (actual != null) result.add(new HistoryEntry(entry.view(), actual));
+        }
+        return result;
+    }
+
+    // Пачка публикуется одной версией, читатели не видят её применённой частично
+    @Override
+    public void applyAll(List<BatchOperation> operations) {
+        synchronized (writeLock) {
+            Version version = working;
+            TaskBatch.validate(operations, new TaskBatch.State(version.tasks()::get, version.epics()::get,
+                    version.subtasks()::get, timeIndex::findIntersecting));
+            inBatch(() -> TaskBatch.apply(operations, this));
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task = current.tasks().get(id);
+        if (task == null) {
+            throw new NotFoundException("Задача с id " + id + " не найдена");
+        }
+        addToHistory(task);
+        return task;
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        Epic epic = current.epics().get(id);
+        if (epic == null) {
+            throw new NotFoundException("Эпик с id " + id + " не найден");
+        }
+        addToHistory(epic);
+        return epic;
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        Subtask subtask = current.subtasks().get(id);
+        if (subtask == null) {
+            throw new NotFoundException("Подзадача с id " + id + " не найдена");
+        }
+        addToHistory(subtask);
+        return subtask;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return current.tasks().values();
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return current.epics().values();
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        return current.subtasks().values();
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        return current.getSubtasksByEpicId(epicId);
+    }
+
+    @Override
+    public void createTask(Task task) {
+        synchronized (writeLock) {
+            Version version = working;
+            task.setId(nextId++);
+            if (timeIndex.hasIntersection(task)) {
+                throw new IntersectionException();
+            }
+            timeIndex.add(task);
+            publish(version, version.tasks().put(task.getId(), task), version.epics(), version.subtasks(),
+                    version.prioritized().put(task, task));
+        }
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        synchronized (writeLock) {
+            Version version = working;
+            epic.setId(nextId++);
+            publish(version, version.tasks(), version.epics().put(epic.getId(), epic), version.subtasks(),
+                    version.prioritized());
+        }
+    }
+
+    @Override
+    public void createSubtask(Subtask subtask) {
+        synchronized (writeLock) {
+            Version version = working;
+            Epic epic = version.epics().get(subtask.getEpicId());
+            if (epic == null) {
+                throw new NotFoundException("Эпик с id " + subtask.getEpicId() + " не найден");
+            }
+            subtask.setId(nextId++);
+            if (timeIndex.hasIntersection(subtask)) {
+                throw new IntersectionException();
+            }
+            timeIndex.add(subtask);
+            PersistentTree<Integer, Subtask> subtasks = version.subtasks().put(subtask.getId(), subtask);
+            Epic updated = copyOf(epic);
+            updated.addSubtaskId(subtask.getId());
+            epicRollups.computeIfAbsent(epic.getId(), id -> new EpicRollup()).add(subtask);
+            refresh(updated, subtasks);
+            publish(version, version.tasks(), version.epics().put(updated.getId(), updated), subtasks,
+                    version.prioritized().put(subtask, subtask));
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        synchronized (writeLock) {
+            Version version = working;
+            Task old = version.tasks().get(task.getId());
+            if (old == null) {
+                throw new NotFoundException("Задача с id " + task.getId() + " не найдена");
+            }
+            if (timeIndex.hasIntersection(task)) {
+                throw new IntersectionException();
+            }
+            timeIndex.remove(old.getId());
+            timeIndex.add(task);
+            publish(version, version.tasks().put(task.getId(), task), version.epics(), version.subtasks(),
+                    version.prioritized().remove(old).put(task, task));
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        synchronized (writeLock) {
+            Version version = working;
+            Epic stored = version.epics().get(epic.getId());
+            if (stored == null) {
+                throw new NotFoundException("Эпик с id " + epic.getId() + " не найден");
+            }
+            Epic updated = copyOf(stored);
+            updated.setName(epic.getName());
+            updated.setDescription(epic.getDescription());
+            refresh(updated, version.subtasks());
+            publish(version, version.tasks(), version.epics().put(updated.getId(), updated), version.subtasks(),
+                    version.prioritized());
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        synchronized (writeLock) {
+            Version version = working;
+            Subtask old = version.subtasks().get(subtask.getId());
+            if (old == null) {
+                throw new NotFoundException("Подзадача с id " + subtask.getId() + " не найдена");
+            }
+            if (timeIndex.hasIntersection(subtask)) {
+                throw new IntersectionException();
+            }
+            timeIndex.remove(old.getId());
+            timeIndex.add(subtask);
+            PersistentTree<Integer, Subtask> subtasks = version.subtasks().put(subtask.getId(), subtask);
+            PersistentTree<Integer, Epic> epics = version.epics();
+            Epic epic = epics.get(old.getEpicId());
+            if (epic != null) {
+                EpicRollup rollup = epicRollups.get(epic.getId());
+                if (rollup != null) {
+                    rollup.add(subtask);
+                }
+                Epic updated = copyOf(epic);
+                refresh(updated, subtasks);
+                epics = epics.put(updated.getId(), updated);
+            }
+            publish(version, version.tasks(), epics, subtasks, version.prioritized().remove(old).put(subtask, subtask));
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        synchronized (writeLock) {
+            Version version = working;
+            Task removed = version.tasks().get(id);
+            if (removed == null) return;
+            timeIndex.remove(id);
+            publish(version, version.tasks().remove(id), version.epics(), version.subtasks(),
+                    version.prioritized().remove(removed));
+            removeFromHistory(id);
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        synchronized (writeLock) {
+            Version version = working;
+            Epic removed = version.epics().get(id);
+            if (removed == null) return;
+            epicRollups.remove(id);
+            PersistentTree<Integer, Subtask> subtasks = version.subtasks();
+            PersistentTree<Task, Task> prioritized = version.prioritized();
+            for (int sid : removed.getSubtaskIds()) {
+                Subtask subtask = subtasks.get(sid);
+                if (subtask != null) {
+                    subtasks = subtasks.remove(sid);
+                    prioritized = prioritized.remove(subtask);
+                    timeIndex.remove(sid);
+                }
+            }
+            publish(version, version.tasks(), version.epics().remove(id), subtasks, prioritized);
+            removed.getSubtaskIds().forEach(this::removeFromHistory);
+            removeFromHistory(id);
+        }
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        synchronized (writeLock) {
+            Version version = working;
+            Subtask removed = version.subtasks().get(id);
+            if (removed == null) return;
+            timeIndex.remove(id);
+            PersistentTree<Integer, Subtask> subtasks = version.subtasks().remove(id);
+            PersistentTree<Integer, Epic> epics = version.epics();
+            Epic epic = epics.get(removed.getEpicId());
+            if (epic != null) {
+                Epic updated = copyOf(epic);
+                updated.removeSubtaskId(id);
+                EpicRollup rollup = epicRollups.get(epic.getId());
+                if (rollup != null) rollup.remove(id);
+                refresh(updated, subtasks);
+                epics = epics.put(updated.getId(), updated);
+            }
+            publish(version, version.tasks(), epics, subtasks, version.prioritized().remove(removed));
+            removeFromHistory(id);
+        }
+    }
+
+    @Override
+    public void clearTasks() {
+        synchronized (writeLock) {
+            Version version = working;
+            PersistentTree<Task, Task> prioritized = version.prioritized();
+            for (Task task : version.tasks().values()) {
+                prioritized = prioritized.remove(task);
+                timeIndex.remove(task.getId());
+            }
+            publish(version, version.tasks().clear(), version.epics(), version.subtasks(), prioritized);
+            version.tasks().values().forEach(task -> removeFromHistory(task.getId()));
+        }
+    }
+
+    @Override
+    public void clearEpics() {
+        synchronized (writeLock) {
+            Version version = working;
+            PersistentTree<Task, Task> prioritized = removeSubtasks(version);
+            epicRollups.clear();
+            publish(version, version.tasks(), version.epics().clear(), version.subtasks().clear(), prioritized);
+            version.epics().values().forEach(epic -> removeFromHistory(epic.getId()));
+            version.subtasks().values().forEach(subtask -> removeFromHistory(subtask.getId()));
+        }
+    }
+
+    @Override
+    public void clearSubtasks() {
+        synchronized (writeLock) {
+            Version version = working;
+            PersistentTree<Task, Task> prioritized = removeSubtasks(version);
+            epicRollups.clear();
+            PersistentTree<Integer, Subtask> subtasks = version.subtasks().clear();
+            PersistentTree<Integer, Epic> epics = version.epics();
+            for (Epic epic : version.epics().values()) {
+                Epic updated = copyOf(epic);
+                updated.getSubtaskIds().clear();
+                refresh(updated, subtasks);
+                epics = epics.put(updated.getId(), updated);
+            }
+            publish(version, version.tasks(), epics, subtasks, prioritized);
+            version.subtasks().values().forEach(subtask -> removeFromHistory(subtask.getId()));
+        }
+    }
+
+    private PersistentTree<Task, Task> removeSubtasks(Version version) {
+        PersistentTree<Task, Task> prioritized = version.prioritized();
+        for (Subtask subtask : version.subtasks().values()) {
+            prioritized = prioritized.remove(subtask);
+            timeIndex.remove(subtask.getId());
+        }
+        return prioritized;
+    }
+
+    // Выполняет несколько изменений и публикует их одной версией. Эпик, уже скопированный
+    // в этом пакете, ещё не виден читателям и дальше меняется на месте
+    public void inBatch(Runnable mutations) {
+        synchronized (writeLock) {
+            if (batching) {
+                mutations.run();
+                return;
+            }
+            batching = true;
+            try {
+                mutations.run();
+            } finally {
+                batching = false;
+                epicsCopiedInBatch.clear();
+                if (working != current) {
+                    commit();
+                }
+                removedInBatch.forEach(this::removeFromHistory);
+                removedInBatch.clear();
+            }
+        }
+    }
+
+    private void publish(Version previous, PersistentTree<Integer, Task> tasks, PersistentTree<Integer, Epic> epics,
+                         PersistentTree<Integer, Subtask> subtasks, PersistentTree<Task, Task> prioritized) {
+        working = new Version(previous.number(), tasks, epics, subtasks, prioritized);
+        if (!batching) {
+            commit();
+        }
+    }
+
+    private void commit() {
+        current = new Version(current.number() + 1, working.tasks(), working.epics(), working.subtasks(),
+                working.prioritized());
+        working = current;
+    }
+
+    private void refresh(Epic epic, PersistentTree<Integer, Subtask> subtasks) {
+        List<Integer> ids = epic.getSubtaskIds();
+        Subtask first = ids.isEmpty() ? null : subtasks.get(ids.getFirst());
+        EpicRollup.apply(epicRollups.get(epic.getId()), epic, first);
+    }
+
+    private Epic copyOf(Epic epic) {
+        if (batching && !epicsCopiedInBatch.add(epic.getId())) {
+            return epic;
+        }
+        Epic copy = new Epic(epic.getName(), epic.getDescription());
+        copy.setId(epic.getId());
+        copy.setStatus(epic.getStatus());
+        copy.setStartTime(epic.getStartTime());
+        copy.setDuration(epic.getDuration());
+        copy.setEndTime(epic.getEndTime());
+        copy.getSubtaskIds().addAll(epic.getSubtaskIds());
+        return copy;
+    }
+
+    // Удаление сначала публикует версию без задачи, затем чистит историю, поэтому проверка
+    // под блокировкой истории не даёт вернуть в неё задачу, удалённую параллельно
+    private void addToHistory(Task task) {
+        synchronized (historyManager) {
+            if (find(current, task) == task) {
+                historyManager.add(task);
+            }
+        }
+    }
+
+    private void removeFromHistory(int id) {
+        if (batching) {
+            removedInBatch.add(id);
+            return;
+        }
+        synchronized (historyManager) {
+            historyManager.remove(id);
+        }
+    }
+
+    // От объекта в истории используются только id и тип, состояние берётся из текущей версии:
+    // эпик при пересчёте заменяется копией, и сохранённый объект мог устареть
+    private List<Task> resolve(List<Task> viewed) {
+        Version version = current;
+        List<Task> result = new ArrayList<>(viewed.size());
+        for (Task task : viewed) {
+            Task actual = find(version, task);
+            if (actual != null) result.add(actual);
+        }
+        return result;
+    }
+
+    private static Task find(Version version, Task task) {
+        return switch (task.getType()) {
+            case TASK -> version.tasks().get(task.getId());
+            case EPIC -> version.epics().get(task.getId());
+            case SUBTASK -> version.subtasks().get(task.getId());
+        };
+    }
+}
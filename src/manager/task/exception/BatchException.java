@@ -0,0 +1,16 @@
+package manager.task.exception;
+
+// Пачка отклонена целиком; index — номер операции, которая не прошла проверку, cause — её ошибка
+// (IntersectionException, NotFoundException или IllegalArgumentException)
+public class BatchException extends RuntimeException {
+    private final int index;
+
+    public BatchException(int index, RuntimeException cause) {
+        super("Операция " + index + " пачки отклонена: " + cause.getMessage(), cause);
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+}
@@ -1,12 +1,13 @@
 package model;
 
+import util.UniqueIntList;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 public class Epic extends Task {
-    private final List<Integer> subtaskIds = new ArrayList<>();
+    // Примитивный список: удаление подзадачи не перебирает Integer по одному
+    private final UniqueIntList subtaskIds = new UniqueIntList();
     private LocalDateTime endTime;
 
     public Epic(String name, String description) {
@@ -22,7 +23,7 @@ public class Epic extends Task {
         this.endTime = endTime;
     }
 
-    public List<Integer> getSubtaskIds() {
+    public UniqueIntList getSubtaskIds() {
         return subtaskIds;
     }
 
@@ -30,11 +31,11 @@ public class Epic extends Task {
         if (subtaskId == this.getId()) {
             throw new IllegalArgumentException("Эпик не может содержать сам себя в качестве подзадачи");
         }
-        subtaskIds.add(subtaskId);
+        subtaskIds.addInt(subtaskId);
     }
 
     public void removeSubtaskId(int subtaskId) {
-        subtaskIds.remove((Integer) subtaskId);
+        subtaskIds.removeInt(subtaskId);
     }
 
     @Override
@@ -0,0 +1,12 @@
+package model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Свободный промежуток расписания: задача, которая начинается не раньше start и заканчивается
+// не позже end, не пересекается с уже запланированными
+public record TimeSlot(LocalDateTime start, LocalDateTime end) {
+    public Duration length() {
+        return Duration.between(start, end);
+    }
+}
@@ -0,0 +1,144 @@
+package util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+// Хеш-таблица int → V с открытой адресацией и линейным пробированием. Ключи лежат в int[],
+// поэтому нет ни Integer на каждый ключ, ни узла на каждую запись, как у HashMap.
+// null-значение обозначает свободную ячейку, поэтому хранить null нельзя. При удалении
+// следующие записи цепочки сдвигаются назад, и «надгробий» в таблице не остаётся
+public class IntHashMap<V> {
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Ожидаемый размер не может быть отрицательным");
+        }
+        int capacity = capacityFor(expectedSize);
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "Значение не может быть null");
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > maxSize(keys.length)) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> mapping) {
+        V value = get(key);
+        if (value == null) {
+            value = mapping.apply(key);
+            if (value != null) put(key, value);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = indexOf(key);
+        if (i < 0) return null;
+        V old = (V) values[i];
+        int mask = keys.length - 1;
+        int gap = i;
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            // Запись из j переезжает в дыру, если её домашняя ячейка не лежит между дырой и j
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = null;
+        size--;
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == null) continue;
+            int i = slot(oldKeys[j], mask);
+            while (values[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    // Последовательные id перемешиваются, иначе они занимали бы соседние ячейки одной длинной серией
+    static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Заполнение не больше трёх четвертей
+    static int maxSize(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (maxSize(capacity) < expectedSize) capacity <<= 1;
+        return capacity;
+    }
+}
@@ -0,0 +1,119 @@
+package util;
+
+import java.util.Arrays;
+
+// Хеш-таблица int → int с открытой адресацией, как IntHashMap, но и значения примитивные.
+// Отсутствие значения обозначает noValue, заданное в конструкторе: get возвращает его для
+// неизвестного ключа, а положить его в таблицу нельзя
+public class IntIntMap {
+    private final int noValue;
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public IntIntMap(int noValue) {
+        this(noValue, 0);
+    }
+
+    public IntIntMap(int noValue, int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Ожидаемый размер не может быть отрицательным");
+        }
+        this.noValue = noValue;
+        int capacity = IntHashMap.capacityFor(expectedSize);
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, noValue);
+    }
+
+    public int noValue() {
+        return noValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int key) {
+        int i = indexOf(key);
+        return i < 0 ? noValue : values[i];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int put(int key, int value) {
+        if (value == noValue) {
+            throw new IllegalArgumentException("Значение " + value + " зарезервировано для отсутствующих ключей");
+        }
+        int mask = keys.length - 1;
+        int i = IntHashMap.slot(key, mask);
+        while (values[i] != noValue) {
+            if (keys[i] == key) {
+                int old = values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > IntHashMap.maxSize(keys.length)) {
+            resize(keys.length * 2);
+        }
+        return noValue;
+    }
+
+    public int remove(int key) {
+        int i = indexOf(key);
+        if (i < 0) return noValue;
+        int old = values[i];
+        int mask = keys.length - 1;
+        int gap = i;
+        for (int j = (i + 1) & mask; values[j] != noValue; j = (j + 1) & mask) {
+            int home = IntHashMap.slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = noValue;
+        size--;
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(values, noValue);
+        size = 0;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        for (int i = IntHashMap.slot(key, mask); values[i] != noValue; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, noValue);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == noValue) continue;
+            int i = IntHashMap.slot(oldKeys[j], mask);
+            while (values[i] != noValue) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+// Отображение int → V, упорядоченное по ключу: отсортированный int[] ключей и параллельный массив
+// значений. Поиск — двоичный, а на запись уходит 8–12 байт вместо узла TreeMap и Integer.
+// id выдаются по возрастанию, поэтому вставка почти всегда дописывает в конец. Удаление
+// обнуляет значение, а массивы уплотняются, когда пустых ячеек становится больше, чем живых.
+// null-значение обозначает удалённую запись, поэтому хранить null нельзя
+public class IntSortedMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys = new int[MIN_CAPACITY];
+    private Object[] values = new Object[MIN_CAPACITY];
+    // Занятая часть массивов вместе с удалёнными ячейками
+    private int length;
+    private int size;
+    private int modCount;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = Arrays.binarySearch(keys, 0, length, key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "Значение не может быть null");
+        modCount++;
+        if (length == 0 || key > keys[length - 1]) {
+            ensureCapacity();
+            keys[length] = key;
+            values[length++] = value;
+            size++;
+            return null;
+        }
+        int i = Arrays.binarySearch(keys, 0, length, key);
+        if (i >= 0) {
+            V old = (V) values[i];
+            values[i] = value;
+            if (old == null) size++;
+            return old;
+        }
+        // Ключ из середины: так бывает только при загрузке в произвольном порядке
+        i = -i - 1;
+        ensureCapacity();
+        System.arraycopy(keys, i, keys, i + 1, length - i);
+        System.arraycopy(values, i, values, i + 1, length - i);
+        keys[i] = key;
+        values[i] = value;
+        length++;
+        size++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = Arrays.binarySearch(keys, 0, length, key);
+        if (i < 0 || values[i] == null) return null;
+        V old = (V) values[i];
+        values[i] = null;
+        size--;
+        modCount++;
+        while (length > 0 && values[length - 1] == null) length--;
+        if (length - size > size) compact();
+        return old;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, length, null);
+        if (keys.length > MIN_CAPACITY) {
+            keys = new int[MIN_CAPACITY];
+            values = new Object[MIN_CAPACITY];
+        }
+        length = 0;
+        size = 0;
+        modCount++;
+    }
+
+    public void forEachKey(IntConsumer action) {
+        int expected = modCount;
+        for (int i = 0; i < length; i++) {
+            if (values[i] != null) action.accept(keys[i]);
+            if (modCount != expected) throw new ConcurrentModificationException();
+        }
+    }
+
+    // Значения в порядке ключей; коллекция — представление, а не копия
+    public Collection<V> values() {
+        return new Values(Integer.MIN_VALUE, true);
+    }
+
+    // Значения с ключами строго больше key — страница читается без копирования всей коллекции
+    public Collection<V> valuesAfter(int key) {
+        return new Values(key, false);
+    }
+
+    private void ensureCapacity() {
+        if (length < keys.length) return;
+        if (length - size >= length / 4) {
+            compact();
+            if (length < keys.length) return;
+        }
+        int capacity = keys.length + (keys.length >> 1);
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private void compact() {
+        int w = 0;
+        for (int r = 0; r < length; r++) {
+            if (values[r] == null) continue;
+            keys[w] = keys[r];
+            values[w++] = values[r];
+        }
+        Arrays.fill(values, w, length, null);
+        length = w;
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        private final int from;
+        private final boolean inclusive;
+
+        Values(int from, boolean inclusive) {
+            this.from = from;
+            this.inclusive = inclusive;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            int start = Arrays.binarySearch(keys, 0, length, from);
+            if (start < 0) {
+                start = -start - 1;
+            } else if (!inclusive) {
+                start++;
+            }
+            int first = start;
+            return new Iterator<>() {
+                private final int expected = modCount;
+                private int next = skipRemoved(first);
+
+                @Override
+                public boolean hasNext() {
+                    return next < length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public V next() {
+                    if (modCount != expected) throw new ConcurrentModificationException();
+                    if (next >= length) throw new NoSuchElementException();
+                    V value = (V) values[next];
+                    next = skipRemoved(next + 1);
+                    return value;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            if (inclusive && from == Integer.MIN_VALUE) return size;
+            int count = 0;
+            for (V ignored : this) count++;
+            return count;
+        }
+
+        private int skipRemoved(int i) {
+            while (i < length && values[i] == null) i++;
+            return i;
+        }
+    }
+}
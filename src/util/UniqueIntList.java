@@ -0,0 +1,220 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+// Список различных int в порядке добавления: элементы лежат в int[], без Integer на каждый.
+// Пока элементов немного, поиск — линейный проход по массиву, а удаление сдвигает хвост.
+// Когда их становится больше SMALL, появляется индекс «значение → позиция»: contains и remove
+// работают за O(1), удалённая позиция остаётся дырой. Дыры убирает только запись: removeInt уплотняет
+// массив, когда дыр становится больше, чем элементов. Чтение пропускает дыры и ничего не меняет, поэтому
+// список без записи можно читать из нескольких потоков. Повторное добавление имеющегося значения ничего не меняет
+public class UniqueIntList extends AbstractList<Integer> {
+    static final int SMALL = 8;
+    private static final int[] EMPTY = new int[0];
+
+    private int[] elements = EMPTY;
+    // Живые элементы лежат в [start, end); при индексе между ними могут быть дыры
+    private int start;
+    private int end;
+    private int size;
+    private IntIntMap index;
+
+    public boolean addInt(int value) {
+        if (containsInt(value)) return false;
+        if (end == elements.length) grow();
+        elements[end] = value;
+        if (index != null) {
+            index.put(value, end);
+        } else if (end + 1 > SMALL) {
+            buildIndex();
+        }
+        end++;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    public boolean removeInt(int value) {
+        if (index == null) {
+            int i = scan(value);
+            if (i < 0) return false;
+            System.arraycopy(elements, i + 1, elements, i, end - i - 1);
+            end--;
+        } else {
+            int i = index.remove(value);
+            if (i < 0) return false;
+            // Граничные дыры убираем сразу, чтобы первый элемент всегда был живым
+            if (i == start) {
+                while (start < end && !isLive(start)) start++;
+            }
+            while (end > start && !isLive(end - 1)) end--;
+        }
+        size--;
+        modCount++;
+        if (size == 0) {
+            start = 0;
+            end = 0;
+        } else if (end - start - size > size) {
+            // Уплотнение стоит O(size) и нужно не чаще раза на size удалений
+            moveToFront();
+        }
+        return true;
+    }
+
+    public boolean containsInt(int value) {
+        return index != null ? index.containsKey(value) : scan(value) >= 0;
+    }
+
+    public int getInt(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Индекс " + i + " вне списка размера " + size);
+        }
+        if (!hasHoles()) return elements[start + i];
+        int position = start;
+        for (int live = 0; ; position++) {
+            if (isLive(position) && live++ == i) return elements[position];
+        }
+    }
+
+    public void forEachInt(IntConsumer action) {
+        int expected = modCount;
+        for (int i = start; i < end; i++) {
+            if (index != null && !isLive(i)) continue;
+            action.accept(elements[i]);
+            if (modCount != expected) throw new ConcurrentModificationException();
+        }
+    }
+
+    // Обход пропускает дыры, а не обращается к getInt, поэтому остаётся линейным и при дырах
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private final int expected = modCount;
+            private int next = skipHoles(start);
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            public Integer next() {
+                if (modCount != expected) throw new ConcurrentModificationException();
+                if (next >= end) throw new NoSuchElementException();
+                int value = elements[next];
+                next = skipHoles(next + 1);
+                return value;
+            }
+        };
+    }
+
+    @Override
+    public Integer get(int i) {
+        return getInt(i);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        return addInt(value);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Integer value && removeInt(value);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer value && containsInt(value);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Integer value)) return -1;
+        if (index == null) {
+            int i = scan(value);
+            return i < 0 ? -1 : i - start;
+        }
+        int i = index.get(value);
+        if (i < 0) return -1;
+        if (!hasHoles()) return i - start;
+        int live = 0;
+        for (int position = start; position < i; position++) {
+            if (isLive(position)) live++;
+        }
+        return live;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public void clear() {
+        elements = EMPTY;
+        start = 0;
+        end = 0;
+        size = 0;
+        index = null;
+        modCount++;
+    }
+
+    private int scan(int value) {
+        for (int i = start; i < end; i++) {
+            if (elements[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private boolean isLive(int i) {
+        return index.get(elements[i]) == i;
+    }
+
+    private void buildIndex() {
+        index = new IntIntMap(-1, end + 1);
+        for (int i = start; i <= end; i++) {
+            index.put(elements[i], i);
+        }
+    }
+
+    private void grow() {
+        // Место, занятое дырами и сдвигом начала, сначала возвращаем уплотнением
+        if (end - size > elements.length / 4) {
+            moveToFront();
+            return;
+        }
+        elements = Arrays.copyOf(elements, Math.max(4, elements.length + (elements.length >> 1)));
+    }
+
+    private boolean hasHoles() {
+        return end - start != size;
+    }
+
+    private int skipHoles(int i) {
+        while (i < end && index != null && !isLive(i)) i++;
+        return i;
+    }
+
+    private void moveToFront() {
+        int w = 0;
+        for (int r = start; r < end; r++) {
+            if (index != null && !isLive(r)) continue;
+            elements[w] = elements[r];
+            if (index != null) index.put(elements[w], w);
+            w++;
+        }
+        start = 0;
+        end = w;
+    }
+}
@@ -0,0 +1,117 @@
+package http;
+
+import manager.task.InMemoryTaskManager;
+import manager.task.TaskManager;
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты сжатия ответов")
+public class HttpCompressionTest {
+    private final TaskManager manager = new InMemoryTaskManager();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpTaskServer taskServer;
+
+    private void start(ServerConfig config) throws IOException {
+        taskServer = new HttpTaskServer(manager, config.withPort(0));
+        taskServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskServer.stop();
+    }
+
+    private void fill(int count) {
+        for (int i = 0; i < count; i++) {
+            manager.createTask(new Task("Задача " + i, "Описание задачи", Status.NEW, null, null));
+        }
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + taskServer.getPort() + path)).GET();
+        if (acceptEncoding != null) {
+            builder.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String decode(HttpResponse<byte[]> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("identity");
+        InputStream in = new ByteArrayInputStream(response.body());
+        if (encoding.equals("gzip")) in = new GZIPInputStream(in);
+        if (encoding.equals("deflate")) in = new InflaterInputStream(in);
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Большой список сжимается gzip, в том числе при ответе из кэша")
+    public void testGzipLargeResponse() throws IOException, InterruptedException {
+        start(ServerConfig.defaults());
+        fill(2000);
+        String plain = decode(get("/tasks", null));
+
+        for (int i = 0; i < 2; i++) {
+            HttpResponse<byte[]> response = get("/tasks", "deflate;q=0.5, gzip");
+            assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+            assertTrue(response.body().length < plain.length() / 4, "Сжатый ответ: " + response.body().length);
+            assertEquals(plain, decode(response));
+        }
+        assertEquals(2, taskServer.getCacheStats().hits());
+    }
+
+    @Test
+    @DisplayName("Если gzip не принимается, используется deflate")
+    public void testDeflateFallback() throws IOException, InterruptedException {
+        start(ServerConfig.defaults());
+        fill(500);
+
+        HttpResponse<byte[]> response = get("/prioritized", "gzip;q=0, deflate");
+
+        assertEquals("deflate", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals(500, HttpTaskServer.getGson().fromJson(decode(response), Task[].class).length);
+    }
+
+    @Test
+    @DisplayName("Короткий ответ не сжимается и отправляется с Content-Length")
+    public void testSmallResponseNotCompressed() throws IOException, InterruptedException {
+        start(ServerConfig.defaults());
+        fill(1);
+
+        HttpResponse<byte[]> response = get("/tasks", "gzip");
+
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(String.valueOf(response.body().length),
+                response.headers().firstValue("Content-Length").orElse(null));
+        assertEquals(1, HttpTaskServer.getGson().fromJson(decode(response), Task[].class).length);
+    }
+
+    @Test
+    @DisplayName("При отключённом сжатии ответ не сжимается")
+    public void testCompressionDisabled() throws IOException, InterruptedException {
+        start(ServerConfig.defaults().withoutCompression());
+        fill(2000);
+
+        HttpResponse<byte[]> response = get("/history", "gzip, deflate");
+
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals("[]", decode(response));
+        assertTrue(get("/tasks", "gzip").headers().firstValue("Content-Encoding").isEmpty());
+    }
+}
@@ -0,0 +1,253 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import manager.task.BatchOperation;
+import manager.task.FileBackedTaskManager;
+import manager.task.InMemoryTaskManager;
+import manager.task.TaskManager;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskManagerBatchTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 8, 1, 9, 0);
+
+    private TaskManager manager;
+    private HttpTaskServer taskServer;
+    private Gson gson;
+    private HttpClient client;
+
+    @BeforeEach
+    @DisplayName("Настройка сервера и клиента перед каждым тестом")
+    public void setUp() throws IOException {
+        manager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+        gson = HttpTaskServer.getGson();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    @DisplayName("Остановка сервера после каждого теста")
+    public void tearDown() {
+        if (taskServer != null) taskServer.stop();
+    }
+
+    @Test
+    @DisplayName("Атомарная пачка создаёт эпик с подзадачами за один запрос")
+    public void testAtomicBatchCreatesEpicWithSubtasks() throws IOException, InterruptedException {
+        JsonArray operations = new JsonArray();
+        operations.add(operation("create", new Epic("Release", "Desc")));
+        operations.add(operation("create", new Subtask("Build", "Desc", Status.NEW,
+                BatchOperation.epicRef(0), BASE, Duration.ofMinutes(30))));
+        operations.add(operation("create", new Subtask("Deploy", "Desc", Status.DONE,
+                BatchOperation.epicRef(0), BASE.plusHours(1), Duration.ofMinutes(30))));
+        JsonObject body = new JsonObject();
+        body.addProperty("atomic", true);
+        body.add("operations", operations);
+
+        HttpResponse<String> response = post(body.toString());
+        assertEquals(200, response.statusCode());
+        JsonArray results = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(3, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(201, results.get(i).getAsJsonObject().get("status").getAsInt());
+        }
+
+        int epicId = results.get(0).getAsJsonObject().get("id").getAsInt();
+        Epic epic = manager.getEpicById(epicId);
+        assertEquals(2, manager.getSubtasksByEpicId(epicId).size());
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+    }
+
+    @Test
+    @DisplayName("Отклонённая атомарная пачка возвращает 409 и ничего не меняет")
+    public void testAtomicBatchRejectedAsWhole() throws IOException, InterruptedException {
+        Task existing = new Task("Existing", "Desc", Status.NEW, BASE, Duration.ofHours(1));
+        manager.createTask(existing);
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("create", new Task("Free", "Desc", Status.NEW,
+                BASE.plusHours(3), Duration.ofMinutes(30))));
+        operations.add(operation("create", new Task("Clash", "Desc", Status.NEW,
+                BASE.plusMinutes(30), Duration.ofMinutes(30))));
+        JsonObject body = new JsonObject();
+        body.addProperty("atomic", true);
+        body.add("operations", operations);
+
+        HttpResponse<String> response = post(body.toString());
+        assertEquals(409, response.statusCode());
+        JsonArray results = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(424, results.get(0).getAsJsonObject().get("status").getAsInt());
+        assertEquals(406, results.get(1).getAsJsonObject().get("status").getAsInt());
+        assertTrue(results.get(1).getAsJsonObject().has("error"));
+
+        assertEquals(1, manager.getAllTasks().size(), "Ни одна операция не должна примениться");
+        assertEquals(existing, manager.getAllTasks().get(0));
+    }
+
+    @Test
+    @DisplayName("Неатомарная пачка выполняет операции независимо и сообщает результат каждой")
+    public void testNonAtomicBatchReportsEachOperation() throws IOException, InterruptedException {
+        Task existing = new Task("Existing", "Desc", Status.NEW, BASE, Duration.ofHours(1));
+        manager.createTask(existing);
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("create", new Task("Clash", "Desc", Status.NEW,
+                BASE.plusMinutes(30), Duration.ofMinutes(30))));
+        Task missing = new Task("Missing", "Desc", Status.NEW, null, null);
+        missing.setId(999);
+        operations.add(operation("update", missing));
+        operations.add(operation("create", new Epic("Epic", "Desc")));
+        operations.add(operation("create", new Subtask("Sub", "Desc", Status.NEW,
+                BatchOperation.epicRef(2), BASE.plusHours(2), Duration.ofMinutes(30))));
+        JsonObject delete = new JsonObject();
+        delete.addProperty("op", "delete");
+        delete.addProperty("type", "TASK");
+        delete.addProperty("id", existing.getId());
+        operations.add(delete);
+
+        HttpResponse<String> response = post(operations.toString());
+        assertEquals(200, response.statusCode());
+        JsonArray results = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(406, results.get(0).getAsJsonObject().get("status").getAsInt());
+        assertEquals(404, results.get(1).getAsJsonObject().get("status").getAsInt());
+        assertEquals(201, results.get(2).getAsJsonObject().get("status").getAsInt());
+        assertEquals(201, results.get(3).getAsJsonObject().get("status").getAsInt());
+        assertEquals(201, results.get(4).getAsJsonObject().get("status").getAsInt());
+
+        int epicId = results.get(2).getAsJsonObject().get("id").getAsInt();
+        assertEquals(1, manager.getSubtasksByEpicId(epicId).size());
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Некорректное тело пачки отклоняется с кодом 400")
+    public void testMalformedBatchRejected() throws IOException, InterruptedException {
+        assertEquals(400, post("[{\"op\":\"move\"}]").statusCode());
+        assertEquals(400, post("{\"atomic\":true}").statusCode());
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Перенос подзадачи в другой эпик отклоняет атомарную пачку целиком")
+    public void testAtomicBatchRejectsSubtaskMove() throws IOException, InterruptedException {
+        Epic home = new Epic("Home", "Desc");
+        Epic other = new Epic("Other", "Desc");
+        manager.createEpic(home);
+        manager.createEpic(other);
+        Subtask subtask = new Subtask("Sub", "Desc", Status.NEW, home.getId(), null, null);
+        manager.createSubtask(subtask);
+        Subtask moved = new Subtask("Moved", "Desc", Status.DONE, other.getId(), null, null);
+        moved.setId(subtask.getId());
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("create", new Task("Created", "Desc", Status.NEW, null, null)));
+        operations.add(operation("update", moved));
+        JsonObject body = new JsonObject();
+        body.addProperty("atomic", true);
+        body.add("operations", operations);
+
+        HttpResponse<String> response = post(body.toString());
+        assertEquals(409, response.statusCode());
+        JsonArray results = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(424, results.get(0).getAsJsonObject().get("status").getAsInt());
+        assertEquals(400, results.get(1).getAsJsonObject().get("status").getAsInt());
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertEquals(home.getId(), manager.getSubtaskById(subtask.getId()).getEpicId());
+    }
+
+    @Test
+    @DisplayName("Отказ менеджера вне проверки пачки даёт 400 по операциям, а не 500")
+    public void testManagerRejectionReportedPerOperation() throws IOException, InterruptedException {
+        taskServer.stop();
+        manager = new InMemoryTaskManager() {
+            @Override
+            public void applyAll(List<BatchOperation> operations) {
+                throw new IllegalArgumentException("Некорректная задача");
+            }
+        };
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("create", new Task("First", "Desc", Status.NEW, null, null)));
+        operations.add(operation("create", new Task("Second", "Desc", Status.NEW, null, null)));
+        HttpResponse<String> each = post(operations.toString());
+        assertEquals(200, each.statusCode());
+        for (var result : JsonParser.parseString(each.body()).getAsJsonArray()) {
+            assertEquals(400, result.getAsJsonObject().get("status").getAsInt());
+        }
+
+        JsonObject body = new JsonObject();
+        body.addProperty("atomic", true);
+        body.add("operations", operations);
+        HttpResponse<String> atomic = post(body.toString());
+        assertEquals(409, atomic.statusCode());
+        for (var result : JsonParser.parseString(atomic.body()).getAsJsonArray()) {
+            assertEquals(400, result.getAsJsonObject().get("status").getAsInt());
+        }
+    }
+
+    @Test
+    @DisplayName("Сбой сохранения после применения пачки даёт 500, а не отказ по операциям")
+    public void testPersistenceFailureIsServerError() throws IOException, InterruptedException {
+        taskServer.stop();
+        File dir = Files.createTempDirectory("test_batch").toFile();
+        manager = new FileBackedTaskManager(new File(dir, "tasks.csv"));
+        assertTrue(dir.delete());
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+
+        JsonArray operations = new JsonArray();
+        operations.add(operation("create", new Task("Applied", "Desc", Status.NEW, null, null)));
+        JsonObject body = new JsonObject();
+        body.addProperty("atomic", true);
+        body.add("operations", operations);
+        assertEquals(500, post(body.toString()).statusCode());
+        assertEquals(500, post(operations.toString()).statusCode());
+
+        // Пачка применена в памяти, клиенту нельзя сообщать, что она отклонена
+        assertEquals(2, manager.getAllTasks().size());
+
+        // Каталог возвращаем, чтобы остановка сервера сохранила данные, и убираем файл за собой
+        assertTrue(dir.mkdir());
+        taskServer.stop();
+        taskServer = null;
+        Files.delete(new File(dir, "tasks.csv").toPath());
+        Files.delete(dir.toPath());
+    }
+
+    private JsonObject operation(String op, Task task) {
+        JsonObject operation = new JsonObject();
+        operation.addProperty("op", op);
+        operation.add("task", gson.toJsonTree(task, Task.class));
+        return operation;
+    }
+
+    private HttpResponse<String> post(String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -1,6 +1,9 @@
 package http;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import manager.task.InMemoryTaskManager;
 import manager.task.TaskManager;
 import model.*;
@@ -112,4 +115,32 @@ public class HttpTaskManagerHistoryTest {
         assertEquals(epicId, history[1].getId());
         assertEquals(subtaskId, history[2].getId());
     }
+
+    @Test
+    @DisplayName("Курсор истории не сбивается, если задачу-курсор просмотрели снова")
+    public void testHistoryCursorSurvivesReview() throws IOException, InterruptedException {
+        get("/tasks?id=" + taskId);
+        get("/epics?id=" + epicId);
+        get("/subtasks?id=" + subtaskId);
+
+        JsonObject first = JsonParser.parseString(get("/history?limit=1").body()).getAsJsonObject();
+        assertEquals(taskId, first.getAsJsonArray("items").get(0).getAsJsonObject().get("id").getAsInt());
+        String cursor = first.get("next").getAsString();
+
+        get("/tasks?id=" + taskId);
+        HttpResponse<String> resp = get("/history?limit=5&cursor=" + cursor);
+        assertEquals(200, resp.statusCode());
+        JsonArray items = JsonParser.parseString(resp.body()).getAsJsonObject().getAsJsonArray("items");
+        assertEquals(3, items.size());
+        assertEquals(epicId, items.get(0).getAsJsonObject().get("id").getAsInt());
+        assertEquals(subtaskId, items.get(1).getAsJsonObject().get("id").getAsInt());
+        assertEquals(taskId, items.get(2).getAsJsonObject().get("id").getAsInt());
+
+        assertEquals(400, get("/history?limit=5&cursor=" + taskId).statusCode());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
 }
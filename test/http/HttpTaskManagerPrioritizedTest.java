@@ -1,6 +1,9 @@
 package http;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import manager.task.InMemoryTaskManager;
 import manager.task.TaskManager;
 import model.*;
@@ -8,9 +11,11 @@ import org.junit.jupiter.api.*;
 
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
@@ -117,4 +122,69 @@ public class HttpTaskManagerPrioritizedTest {
         assertTrue(ordered[1].getStartTime().isBefore(ordered[2].getStartTime()), "Второй старт должен быть" +
                 " раньше третьего");
     }
+
+    @Test
+    @DisplayName("GET /prioritized с limit листает по времени начала, курсор переживает удаление задачи")
+    public void testPrioritizedPagedByStartTime() throws IOException, InterruptedException {
+        LocalDateTime base = LocalDateTime.of(2025, 5, 1, 9, 0);
+        for (int i = 3; i >= 0; i--) {
+            manager.createTask(new Task("Task " + i, "Desc", Status.NEW, base.plusHours(i), Duration.ofMinutes(30)));
+        }
+
+        JsonObject first = getPage("http://localhost:8080/prioritized?limit=2&fields=name,endTime");
+        JsonArray items = first.getAsJsonArray("items");
+        assertEquals("Task 0", items.get(0).getAsJsonObject().get("name").getAsString());
+        assertEquals("2025-05-01T09:30:00", items.get(0).getAsJsonObject().get("endTime").getAsString());
+        String next = first.get("next").getAsString();
+
+        // Удаляем задачу, на которой остановилась первая страница
+        manager.deleteTaskById(manager.getPrioritizedTasks().get(1).getId());
+        JsonObject second = getPage("http://localhost:8080/prioritized?limit=2&fields=name&cursor="
+                + URLEncoder.encode(next, StandardCharsets.UTF_8));
+        items = second.getAsJsonArray("items");
+        assertEquals(2, items.size());
+        assertEquals("Task 2", items.get(0).getAsJsonObject().get("name").getAsString());
+        assertEquals("Task 3", items.get(1).getAsJsonObject().get("name").getAsString());
+        assertFalse(second.has("next"));
+    }
+
+    @Test
+    @DisplayName("GET /prioritized с from и to отдаёт задачи, пересекающие окно")
+    public void testPrioritizedTimeWindow() throws IOException, InterruptedException {
+        LocalDateTime base = LocalDateTime.of(2025, 6, 2, 0, 0);
+        for (int day = 0; day < 14; day++) {
+            manager.createTask(new Task("Day " + day, "Desc", Status.NEW, base.plusDays(day).plusHours(9),
+                    Duration.ofHours(1)));
+        }
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:8080/prioritized?from=2025-06-09T00:00:00&to=2025-06-16T00:00:00"))
+                        .GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        Task[] week = gson.fromJson(response.body(), Task[].class);
+        assertEquals(7, week.length);
+        assertEquals("Day 7", week[0].getName());
+        assertEquals("Day 13", week[6].getName());
+
+        JsonObject page = getPage("http://localhost:8080/prioritized?from=2025-06-09T00:00:00&limit=5");
+        assertEquals(5, page.getAsJsonArray("items").size());
+        JsonObject last = getPage("http://localhost:8080/prioritized?from=2025-06-09T00:00:00&limit=5&cursor="
+                + URLEncoder.encode(page.get("next").getAsString(), StandardCharsets.UTF_8));
+        assertEquals(2, last.getAsJsonArray("items").size());
+        assertFalse(last.has("next"));
+
+        HttpResponse<String> bad = client.send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:8080/prioritized?from=2025-06-10T00:00:00&to=2025-06-09T00:00:00"))
+                        .GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, bad.statusCode());
+    }
+
+    private JsonObject getPage(String uri) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(URI.create(uri)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
 }
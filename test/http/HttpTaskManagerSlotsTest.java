@@ -0,0 +1,83 @@
+package http;
+
+import com.google.gson.Gson;
+import manager.task.InMemoryTaskManager;
+import manager.task.TaskManager;
+import model.Status;
+import model.Task;
+import model.TimeSlot;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTaskManagerSlotsTest {
+    private TaskManager manager;
+    private HttpTaskServer taskServer;
+    private Gson gson;
+    private HttpClient client;
+
+    @BeforeEach
+    @DisplayName("Настройка сервера и клиента перед каждым тестом")
+    public void setUp() throws IOException {
+        manager = new InMemoryTaskManager();
+        taskServer = new HttpTaskServer(manager);
+        taskServer.start();
+        gson = HttpTaskServer.getGson();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    @DisplayName("Остановка сервера после каждого теста")
+    public void tearDown() {
+        taskServer.stop();
+    }
+
+    @Test
+    @DisplayName("GET /slots находит промежуток, куда задача создаётся без конфликта")
+    public void testFreeSlotAcceptsNewTask() throws IOException, InterruptedException {
+        LocalDateTime base = LocalDateTime.of(2025, 7, 1, 9, 0);
+        manager.createTask(new Task("Morning", "Desc", Status.NEW, base, Duration.ofMinutes(90)));
+        manager.createTask(new Task("Noon", "Desc", Status.NEW, base.plusHours(2), Duration.ofHours(2)));
+
+        HttpResponse<String> response = get("/slots?duration=PT1H&from=2025-07-01T09:00:00&to=2025-07-01T18:00:00");
+        assertEquals(200, response.statusCode());
+        TimeSlot[] slots = gson.fromJson(response.body(), TimeSlot[].class);
+        assertEquals(1, slots.length, "Разрыв в полчаса между задачами слишком мал");
+        assertEquals(base.plusHours(4).plusMinutes(1), slots[0].start());
+        assertEquals(LocalDateTime.of(2025, 7, 1, 18, 0), slots[0].end());
+
+        Task planned = new Task("Planned", "Desc", Status.NEW, slots[0].start(), Duration.ofHours(1));
+        HttpResponse<String> created = client.send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:8080/tasks"))
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(planned)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, created.statusCode());
+
+        TimeSlot[] after = gson.fromJson(
+                get("/slots?duration=PT1H&from=2025-07-01T09:00:00&to=2025-07-01T18:00:00").body(), TimeSlot[].class);
+        assertEquals(base.plusHours(5).plusMinutes(2), after[0].start(), "Ответ из кэша не должен пережить запись");
+    }
+
+    @Test
+    @DisplayName("GET /slots без обязательных параметров или с неверными значениями возвращает 400")
+    public void testInvalidParametersReturnBadRequest() throws IOException, InterruptedException {
+        assertEquals(400, get("/slots?from=2025-07-01T09:00:00&to=2025-07-01T18:00:00").statusCode());
+        assertEquals(400, get("/slots?duration=PT0S&from=2025-07-01T09:00:00&to=2025-07-01T18:00:00").statusCode());
+        assertEquals(400, get("/slots?duration=1h&from=2025-07-01T09:00:00&to=2025-07-01T18:00:00").statusCode());
+        assertEquals(400, get("/slots?duration=PT1H&from=2025-07-02T09:00:00&to=2025-07-01T18:00:00").statusCode());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -1,8 +1,13 @@
 package http;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import manager.task.InMemoryTaskManager;
 import manager.task.TaskManager;
+import model.Epic;
+import model.Subtask;
 import model.Task;
 import model.Status;
 import org.junit.jupiter.api.*;
@@ -14,6 +19,9 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -163,4 +171,101 @@ public class HttpTaskManagerTasksTest {
         assertEquals(200, after.statusCode());
         assertEquals("[]", after.body());
     }
+
+    @Test
+    @DisplayName("GET /tasks отдаёт большой список потоком с chunked-кодированием")
+    public void testGetAllTasksStreamsLargeList() throws IOException, InterruptedException {
+        for (int i = 0; i < 20_000; i++) {
+            manager.createTask(new Task("Задача " + i, "Desc", Status.NEW, null, null));
+        }
+
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(null));
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(null));
+        Task[] tasks = gson.fromJson(response.body(), Task[].class);
+        assertEquals(20_000, tasks.length);
+        assertEquals("Задача 19999", tasks[19_999].getName());
+    }
+
+    @Test
+    @DisplayName("GET /tasks с актуальным If-None-Match возвращает 304 без тела")
+    public void testConditionalGetReturnsNotModified() throws IOException, InterruptedException {
+        manager.createTask(new Task("Cached", "Desc", Status.NEW, null, null));
+        HttpRequest get = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks")).GET().build();
+        HttpResponse<String> first = client.send(get, HttpResponse.BodyHandlers.ofString());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpRequest conditional = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/tasks"))
+                .header("If-None-Match", etag).GET().build();
+        HttpResponse<String> notModified = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, notModified.statusCode());
+        assertEquals("", notModified.body());
+        assertEquals(etag, notModified.headers().firstValue("ETag").orElse(null));
+
+        manager.createTask(new Task("Another", "Desc", Status.NEW, null, null));
+        HttpResponse<String> changed = client.send(conditional, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, changed.statusCode());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElse(null));
+        assertEquals(2, gson.fromJson(changed.body(), Task[].class).length);
+    }
+
+    @Test
+    @DisplayName("GET /tasks с limit и cursor отдаёт страницы, fields оставляет только нужные поля")
+    public void testGetTasksPagedWithProjection() throws IOException, InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(new Task("Задача " + i, "Desc", Status.NEW, null, null));
+        }
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String uri = "http://localhost:8080/tasks?limit=2&fields=id,name" + (cursor == null ? "" : "&cursor=" + cursor);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder().uri(URI.create(uri)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            JsonObject page = JsonParser.parseString(response.body()).getAsJsonObject();
+            for (JsonElement item : page.getAsJsonArray("items")) {
+                JsonObject task = item.getAsJsonObject();
+                assertEquals(Set.of("id", "name"), task.keySet());
+                names.add(task.get("name").getAsString());
+            }
+            cursor = page.has("next") ? page.get("next").getAsString() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("Задача 0", "Задача 1", "Задача 2", "Задача 3", "Задача 4"), names);
+
+        for (String bad : List.of("limit=0", "limit=abc", "fields=owner", "limit=2&cursor=x")) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                            .uri(URI.create("http://localhost:8080/tasks?" + bad)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, response.statusCode(), bad);
+        }
+    }
+
+    @Test
+    @DisplayName("POST /tasks с эпиком или подзадачей в теле отклоняется с кодом 400")
+    public void testCreateTaskRejectsOtherTypes() throws IOException, InterruptedException {
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        List<Task> others = List.of(new Epic("Not a task", "Desc"),
+                new Subtask("Not a task", "Desc", Status.NEW, epic.getId(), LocalDateTime.now(),
+                        Duration.ofMinutes(10)));
+        for (Task other : others) {
+            HttpRequest post = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/tasks"))
+                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(other, Task.class)))
+                    .build();
+            HttpResponse<String> response = client.send(post, HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, response.statusCode(), other.getType().name());
+        }
+
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertTrue(manager.getPrioritizedTasks().isEmpty());
+    }
 }
@@ -0,0 +1,119 @@
+package http;
+
+import manager.task.ConcurrentTaskManager;
+import manager.task.TaskManager;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты режимов выполнения HttpTaskServer")
+public class HttpTaskServerExecutionTest {
+    private static final int REQUESTS = 8;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private HttpTaskServer taskServer;
+
+    // Чтение списка задач считает одновременно выполняющиеся запросы. С барьером каждый запрос ждёт,
+    // пока до него дойдут все REQUESTS: при последовательном выполнении барьер не откроется и запрос упадёт
+    private TaskManager countingManager(CyclicBarrier barrier) {
+        return new ConcurrentTaskManager() {
+            @Override
+            public List<Task> getAllTasks() {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    if (barrier != null) {
+                        barrier.await(30, TimeUnit.SECONDS);
+                    } else {
+                        Thread.sleep(20);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } catch (BrokenBarrierException | TimeoutException e) {
+                    throw new IllegalStateException("Не все запросы выполнялись одновременно", e);
+                } finally {
+                    active.decrementAndGet();
+                }
+                return super.getAllTasks();
+            }
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (taskServer != null) {
+            taskServer.stop();
+        }
+    }
+
+    // Кэш ответов отключён, иначе менеджер вызывался бы только один раз
+    private void runParallelRequests(ServerConfig config, CyclicBarrier barrier) throws IOException {
+        taskServer = new HttpTaskServer(countingManager(barrier), config.withResponseCache(0));
+        taskServer.start();
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + taskServer.getPort() + "/tasks"))
+                .GET()
+                .build();
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.join().statusCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Виртуальные потоки обслуживают запросы параллельно")
+    public void testVirtualThreadsServeInParallel() throws IOException {
+        runParallelRequests(ServerConfig.defaults().withPort(0).withBacklog(64).withVirtualThreads(),
+                new CyclicBarrier(REQUESTS));
+
+        assertEquals(REQUESTS, maxActive.get());
+    }
+
+    @Test
+    @DisplayName("Пул платформенных потоков обслуживает запросы параллельно")
+    public void testPlatformPoolServesInParallel() throws IOException {
+        runParallelRequests(ServerConfig.defaults().withPort(0).withBacklog(64).withPlatformPool(REQUESTS),
+                new CyclicBarrier(REQUESTS));
+
+        assertEquals(REQUESTS, maxActive.get());
+    }
+
+    @Test
+    @DisplayName("В однопоточном режиме запросы выполняются по очереди")
+    public void testSingleThreadServesSequentially() throws IOException {
+        runParallelRequests(ServerConfig.defaults().withPort(0), null);
+
+        assertEquals(1, maxActive.get(), "Запросы выполнялись одновременно");
+    }
+
+    @Test
+    @DisplayName("Некорректная конфигурация сервера отклоняется")
+    public void testRejectsInvalidConfig() {
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.defaults().withPort(70000));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.defaults().withBacklog(-1));
+        assertThrows(IllegalArgumentException.class, () -> ServerConfig.defaults().withPlatformPool(0));
+    }
+}
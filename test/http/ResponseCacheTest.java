@@ -0,0 +1,77 @@
+package http;
+
+import http.handler.ResponseCache;
+import manager.task.InMemoryTaskManager;
+import manager.task.TaskManager;
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты кэша ответов")
+public class ResponseCacheTest {
+
+    @Test
+    @DisplayName("Запись отдаётся только для своей версии и вытесняется при переполнении")
+    public void testVersionedEntriesAndEviction() {
+        ResponseCache cache = new ResponseCache(40);
+
+        cache.put("a", 1, new byte[10]);
+        assertNotNull(cache.get("a", 1));
+        assertNull(cache.get("a", 2), "Устаревшая версия не должна отдаваться");
+        assertNull(cache.get("a", 1), "Устаревшая запись удаляется при обращении");
+
+        cache.put("b", 1, new byte[10]);
+        cache.put("c", 1, new byte[10]);
+        cache.get("b", 1);
+        cache.put("d", 1, new byte[10]);
+        cache.put("e", 1, new byte[10]);
+        cache.put("f", 1, new byte[10]);
+        assertNull(cache.get("c", 1), "Давно не запрошенная запись вытесняется первой");
+        assertNotNull(cache.get("b", 1));
+
+        cache.put("big", 1, new byte[11]);
+        assertNull(cache.get("big", 1), "Ответ больше четверти кэша не сохраняется");
+
+        ResponseCache.Stats stats = cache.stats();
+        assertEquals(3, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(1, stats.evictions());
+        assertEquals(40, stats.bytes());
+    }
+
+    @Test
+    @DisplayName("Повторный GET берётся из кэша, изменение задач делает запись недействительной")
+    public void testServerCachesUntilMutation() throws IOException, InterruptedException {
+        TaskManager manager = new InMemoryTaskManager();
+        HttpTaskServer server = new HttpTaskServer(manager, ServerConfig.defaults().withPort(0));
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            URI uri = URI.create("http://localhost:" + server.getPort() + "/tasks");
+            HttpRequest get = HttpRequest.newBuilder().uri(uri).GET().build();
+            manager.createTask(new Task("Первая", "desc", Status.NEW, null, null));
+
+            String first = client.send(get, HttpResponse.BodyHandlers.ofString()).body();
+            String second = client.send(get, HttpResponse.BodyHandlers.ofString()).body();
+            assertEquals(first, second);
+            assertEquals(1, server.getCacheStats().hits());
+
+            manager.createTask(new Task("Вторая", "desc", Status.NEW, null, null));
+            String third = client.send(get, HttpResponse.BodyHandlers.ofString()).body();
+            assertEquals(2, HttpTaskServer.getGson().fromJson(third, Task[].class).length);
+            assertEquals(1, server.getCacheStats().hits());
+            assertEquals(2, server.getCacheStats().misses());
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты JSON-кодека задач")
+public class TaskAdapterFactoryTest {
+    private final Gson gson = HttpTaskServer.getGson();
+
+    @Test
+    @DisplayName("Смешанный список читается обратно с исходными типами и полями")
+    public void testRoundTripKeepsTypes() {
+        Task task = new Task("Задача", "с \"кавычками\"", Status.IN_PROGRESS,
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(30));
+        task.setId(1);
+        Epic epic = new Epic("Эпик", "desc");
+        epic.setId(2);
+        epic.addSubtaskId(3);
+        epic.setStartTime(LocalDateTime.of(2025, 1, 1, 11, 0));
+        epic.setEndTime(LocalDateTime.of(2025, 1, 1, 11, 0, 5, 1000));
+        Subtask subtask = new Subtask("Подзадача", null, Status.DONE, 2, null, null);
+        subtask.setId(3);
+
+        String json = gson.toJson(List.of(task, epic, subtask));
+        List<Task> back = gson.fromJson(json, new TypeToken<List<Task>>() {
+        }.getType());
+
+        assertEquals(Task.class, back.get(0).getClass());
+        assertEquals("с \"кавычками\"", back.get(0).getDescription());
+        assertEquals(Status.IN_PROGRESS, back.get(0).getStatus());
+        assertEquals(task.getStartTime(), back.get(0).getStartTime());
+        assertEquals(task.getDuration(), back.get(0).getDuration());
+
+        Epic epicBack = assertInstanceOf(Epic.class, back.get(1));
+        assertEquals(List.of(3), epicBack.getSubtaskIds());
+        assertEquals(epic.getEndTime(), epicBack.getEndTime());
+        assertEquals(epic.getStartTime(), epicBack.getStartTime());
+
+        Subtask subtaskBack = assertInstanceOf(Subtask.class, back.get(2));
+        assertEquals(2, subtaskBack.getEpicId());
+        assertNull(subtaskBack.getDescription());
+        assertNull(subtaskBack.getStartTime());
+    }
+
+    @Test
+    @DisplayName("Даты пишутся в формате ISO с секундами")
+    public void testWritesIsoDateTime() {
+        Task task = new Task("Задача", "desc", Status.NEW, LocalDateTime.of(2025, 7, 6, 5, 4), Duration.ofHours(1));
+
+        String json = gson.toJson(task);
+
+        assertTrue(json.contains("\"startTime\":\"2025-07-06T05:04:00\""), json);
+        assertTrue(json.contains("\"duration\":\"PT1H\""), json);
+        assertTrue(json.contains("\"type\":\"TASK\""), json);
+    }
+
+    @Test
+    @DisplayName("Без поля type используется запрошенный класс, у эпика есть список подзадач")
+    public void testReadsWithoutTypeField() {
+        Epic epic = gson.fromJson("{\"name\":\"Эпик\",\"description\":\"desc\",\"unknown\":[1,{}]}", Epic.class);
+        Subtask subtask = gson.fromJson("{\"name\":\"Sub\",\"epicId\":5,\"status\":\"NEW\","
+                + "\"startTime\":\"2025-01-01T10:00\",\"duration\":null}", Subtask.class);
+
+        assertTrue(epic.getSubtaskIds().isEmpty());
+        assertEquals(Status.NEW, epic.getStatus());
+        assertEquals(5, subtask.getEpicId());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 0), subtask.getStartTime());
+        assertNull(subtask.getDuration());
+    }
+
+    @Test
+    @DisplayName("Неверный тип или статус отклоняется")
+    public void testRejectsInvalidInput() {
+        assertThrows(JsonParseException.class, () -> gson.fromJson("{\"type\":\"EPIC\",\"name\":\"x\"}", Subtask.class));
+        assertThrows(JsonParseException.class, () -> gson.fromJson("{\"name\":\"x\",\"status\":\"LATER\"}", Task.class));
+        assertThrows(JsonParseException.class, () -> gson.fromJson("{\"startTime\":\"вчера\"}", Task.class));
+    }
+}
@@ -0,0 +1,158 @@
+package manager;
+
+import manager.task.BinarySnapshotReader;
+import manager.task.BinarySnapshotWriter;
+import manager.task.FileBackedTaskManager;
+import manager.task.PersistenceConfig;
+import manager.task.SnapshotConverter;
+import manager.task.SnapshotFormat;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты бинарного формата снимка")
+class BinarySnapshotTest {
+
+    private File csvFile;
+    private File binaryFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        csvFile = File.createTempFile("test_snapshot", ".csv");
+        binaryFile = File.createTempFile("test_snapshot", ".bin");
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(csvFile.toPath());
+        Files.deleteIfExists(binaryFile.toPath());
+    }
+
+    private static void assertSameTask(Task expected, Task actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getDuration(), actual.getDuration());
+        assertEquals(expected.getEndTime(), actual.getEndTime());
+        if (expected instanceof Subtask subtask) {
+            assertEquals(subtask.getEpicId(), ((Subtask) actual).getEpicId());
+        }
+    }
+
+    @Test
+    @DisplayName("Запись и чтение сохраняют все поля, включая пустые и наносекунды")
+    void shouldRoundTripAllFields() throws IOException {
+        Task timed = new Task("Задача ✓", "описание", Status.IN_PROGRESS,
+                LocalDateTime.of(1969, 12, 31, 23, 59, 30, 123_456_789), Duration.ofMinutes(90));
+        timed.setId(1);
+        Task untimed = new Task("", null, Status.NEW, null, null);
+        untimed.setId(2);
+        Epic epic = new Epic("Epic", "desc");
+        epic.setId(300);
+        epic.setStatus(Status.DONE);
+        epic.setStartTime(LocalDateTime.of(2025, 1, 1, 10, 0));
+        epic.setDuration(Duration.ofMinutes(45));
+        epic.setEndTime(LocalDateTime.of(2025, 1, 1, 12, 0));
+        Subtask subtask = new Subtask("Sub", "desc", Status.DONE, 300,
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(45));
+        subtask.setId(70_000);
+        List<Task> written = List.of(timed, untimed, epic, subtask);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinarySnapshotWriter writer = new BinarySnapshotWriter(bytes)) {
+            for (Task task : written) {
+                writer.write(task);
+            }
+            writer.writeHistory(List.of(70_000, 1));
+        }
+
+        BinarySnapshotReader reader = new BinarySnapshotReader(ByteBuffer.wrap(bytes.toByteArray()));
+        List<Task> read = new ArrayList<>();
+        Task task;
+        while ((task = reader.next()) != null) {
+            read.add(task);
+        }
+
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertSameTask(written.get(i), read.get(i));
+        }
+        assertEquals(List.of(70_000, 1), reader.readHistory());
+    }
+
+    @Test
+    @DisplayName("Файл с чужой сигнатурой не принимается")
+    void shouldRejectForeignFile() throws IOException {
+        Files.writeString(binaryFile.toPath(), "id,type,name\n");
+
+        assertFalse(BinarySnapshotReader.isBinary(binaryFile));
+        assertThrows(IllegalArgumentException.class, () -> BinarySnapshotReader.open(binaryFile));
+    }
+
+    @Test
+    @DisplayName("Менеджер сохраняет и загружает бинарный снимок")
+    void shouldSaveAndLoadBinarySnapshot() {
+        PersistenceConfig config = PersistenceConfig.snapshot().withFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager manager = new FileBackedTaskManager(binaryFile, config);
+        Task task = new Task("Task", "desc", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, 9, 0), Duration.ofMinutes(30));
+        manager.createTask(task);
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Sub", "desc", Status.DONE, epic.getId(),
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(45));
+        manager.createSubtask(subtask);
+        manager.getSubtaskById(subtask.getId());
+        manager.getTaskById(task.getId());
+        manager.flush();
+
+        assertTrue(BinarySnapshotReader.isBinary(binaryFile));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(binaryFile);
+
+        assertEquals(List.of(task), loaded.getAllTasks());
+        assertEquals(List.of(subtask), loaded.getAllSubtasks());
+        Epic loadedEpic = loaded.getAllEpics().getFirst();
+        assertEquals(Status.DONE, loadedEpic.getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 10, 45), loadedEpic.getEndTime());
+        assertEquals(List.of(subtask, task), loaded.getHistory());
+
+        loaded.createTask(new Task("Next", "desc", Status.NEW, null, null));
+        assertEquals(4, loaded.getAllTasks().getLast().getId());
+    }
+
+    @Test
+    @DisplayName("Преобразование CSV в бинарный формат и обратно сохраняет содержимое")
+    void shouldConvertBetweenFormats() throws IOException {
+        FileBackedTaskManager manager = new FileBackedTaskManager(csvFile);
+        manager.createTask(new Task("Task", "desc", Status.IN_PROGRESS,
+                LocalDateTime.of(2025, 1, 1, 9, 0), Duration.ofMinutes(30)));
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        manager.createSubtask(new Subtask("Sub", "desc", Status.NEW, epic.getId(), null, null));
+        manager.getEpicById(epic.getId());
+        manager.flush();
+        String original = Files.readString(csvFile.toPath());
+
+        SnapshotConverter.csvToBinary(csvFile, binaryFile);
+        Files.delete(csvFile.toPath());
+        SnapshotConverter.binaryToCsv(binaryFile, csvFile);
+
+        assertEquals(original.strip(), Files.readString(csvFile.toPath()).strip());
+        assertEquals(manager.getAllSubtasks(), FileBackedTaskManager.loadFromFile(binaryFile).getAllSubtasks());
+    }
+}
@@ -0,0 +1,131 @@
+package manager;
+
+import manager.task.CSVFormatter;
+import manager.task.CSVRowReader;
+import manager.task.FileBackedTaskManager;
+import manager.task.PersistenceConfig;
+import manager.task.TaskJournal;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты CSV-кодека")
+class CSVFormatterTest {
+
+    private File tempFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = File.createTempFile("test_csv", ".csv");
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(tempFile.toPath());
+        Files.deleteIfExists(TaskJournal.journalFileFor(tempFile).toPath());
+    }
+
+    @Test
+    @DisplayName("Запятые, кавычки, переводы строк и пробелы по краям сохраняются")
+    void shouldEscapeSpecialCharacters() {
+        Subtask subtask = new Subtask("Купить: молоко, хлеб", "Сказал \"срочно\"\nвторая строка\r\n",
+                Status.IN_PROGRESS, 3, LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(15));
+        subtask.setId(7);
+
+        String line = CSVFormatter.toString(subtask);
+        Subtask parsed = (Subtask) CSVFormatter.fromString(line);
+
+        assertEquals(subtask.getName(), parsed.getName());
+        assertEquals(subtask.getDescription(), parsed.getDescription());
+        assertEquals(3, parsed.getEpicId());
+        assertEquals(subtask.getStartTime(), parsed.getStartTime());
+
+        Task padded = new Task("  отступ ", "", Status.NEW, null, null);
+        padded.setId(8);
+        Task parsedPadded = CSVFormatter.fromString(CSVFormatter.toString(padded));
+        assertEquals("  отступ ", parsedPadded.getName());
+        assertEquals("", parsedPadded.getDescription());
+    }
+
+    @Test
+    @DisplayName("Строки старого формата читаются как раньше")
+    void shouldReadLegacyRows() {
+        Task task = CSVFormatter.fromString(" 5 , TASK , Name , DONE , Desc ,, 2025-07-16T10:00 , 30 , ");
+
+        assertEquals(5, task.getId());
+        assertEquals("Name", task.getName());
+        assertEquals(Status.DONE, task.getStatus());
+        assertEquals("Desc", task.getDescription());
+        assertEquals(LocalDateTime.of(2025, 7, 16, 10, 0), task.getStartTime());
+        assertEquals(Duration.ofMinutes(30), task.getDuration());
+        assertThrows(IllegalArgumentException.class, () -> CSVFormatter.fromString("1,TASK,\"Name,NEW,d,,,,"));
+    }
+
+    @Test
+    @DisplayName("Время записывается так же, как ISO_LOCAL_DATE_TIME")
+    void shouldFormatTimeLikeIsoFormatter() {
+        Random random = new Random(11);
+        for (int i = 0; i < 1_000; i++) {
+            LocalDateTime time = LocalDateTime.of(random.nextInt(3000), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+                    random.nextBoolean() ? 0 : random.nextInt(60),
+                    random.nextBoolean() ? 0 : random.nextInt(1_000_000_000));
+            Task task = new Task("T", "d", Status.NEW, time, Duration.ofMinutes(1));
+            task.setId(1);
+
+            String line = CSVFormatter.toString(task);
+
+            assertEquals(time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), line.split(",")[6]);
+            assertEquals(time, CSVFormatter.fromString(line).getStartTime());
+        }
+    }
+
+    @Test
+    @DisplayName("Потоковое чтение разбирает многострочные поля и CRLF")
+    void shouldReadRowsFromStream() throws IOException {
+        CSVRowReader row = new CSVRowReader(new StringReader("a,\"b\r\nc\",\"d\"\"e\"\r\n\r\nx"));
+
+        assertTrue(row.next());
+        assertEquals(3, row.size());
+        assertEquals("b\r\nc", row.get(1));
+        assertEquals("d\"e", row.get(2));
+        assertTrue(row.next());
+        assertTrue(row.isBlank());
+        assertTrue(row.next());
+        assertEquals("x", row.get(0));
+        assertFalse(row.next());
+    }
+
+    @Test
+    @DisplayName("Снимок и журнал переживают многострочные названия")
+    void shouldPersistMultilineNames() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile);
+        Epic epic = new Epic("Эпик,\nс переносом", "desc");
+        manager.createEpic(epic);
+        manager.getEpicById(epic.getId());
+        manager.flush();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals("Эпик,\nс переносом", loaded.getAllEpics().getFirst().getName());
+        assertEquals(List.of(epic.getId()), loaded.getHistory().stream().map(Task::getId).toList());
+
+        PersistenceConfig journal = PersistenceConfig.journal(100);
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(tempFile, journal);
+        journaled.createTask(new Task("Задача\n\"в кавычках\"", "desc", Status.NEW, null, null));
+
+        assertEquals(1, TaskJournal.readRecords(TaskJournal.journalFileFor(tempFile)).size());
+        assertEquals("Задача\n\"в кавычках\"",
+                FileBackedTaskManager.loadFromFile(tempFile, journal).getAllTasks().getFirst().getName());
+    }
+}
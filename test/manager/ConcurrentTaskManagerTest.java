@@ -0,0 +1,231 @@
+package manager;
+
+import manager.task.ConcurrentTaskManager;
+import manager.task.exception.IntersectionException;
+import manager.task.exception.NotFoundException;
+import model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты ConcurrentTaskManager")
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS = 8;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Override
+    protected ConcurrentTaskManager createManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    private void runConcurrently(int threads, Callable<Void> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return action.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertConsistent() {
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        Set<Integer> scheduled = new HashSet<>();
+        for (int i = 0; i < prioritized.size(); i++) {
+            Task current = prioritized.get(i);
+            assertTrue(scheduled.add(current.getId()), "Задача в расписании дважды: " + current.getId());
+            if (i > 0 && current.getStartTime() != null && prioritized.get(i - 1).getStartTime() != null) {
+                assertTrue(current.getStartTime().isAfter(prioritized.get(i - 1).getEndTime()),
+                        "Пересекающиеся задачи в расписании: " + current.getId());
+            }
+        }
+        Set<Integer> stored = new HashSet<>();
+        manager.getAllTasks().forEach(t -> stored.add(t.getId()));
+        manager.getAllSubtasks().forEach(t -> stored.add(t.getId()));
+        assertEquals(stored, scheduled);
+
+        for (Subtask subtask : manager.getAllSubtasks()) {
+            Epic epic = manager.getAllEpics().stream()
+                    .filter(e -> e.getId() == subtask.getEpicId()).findFirst().orElseThrow();
+            assertTrue(epic.getSubtaskIds().contains(subtask.getId()));
+        }
+        for (Epic epic : manager.getAllEpics()) {
+            assertEquals(new HashSet<>(epic.getSubtaskIds()).size(), epic.getSubtaskIds().size());
+            if (!epic.getSubtaskIds().isEmpty()) {
+                assertEpicMatchesSubtasks(epic.getId());
+            }
+        }
+        for (Task task : manager.getHistory()) {
+            assertTrue(stored.contains(task.getId()) || manager.getAllEpics().contains(task),
+                    "В истории удалённая задача: " + task.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Параллельное создание выдаёт уникальные id и не допускает пересечений")
+    void shouldCreateConcurrentlyWithoutIntersections() throws Exception {
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Epic epic = new Epic("Epic " + i, "desc");
+            manager.createEpic(epic);
+            epics.add(epic);
+        }
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(THREADS, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 2_000; i++) {
+                LocalDateTime start = BASE.plusMinutes(random.nextInt(200_000));
+                Task task = random.nextBoolean()
+                        ? new Task("Task", "desc", Status.NEW, start, Duration.ofMinutes(random.nextInt(1, 60)))
+                        : new Subtask("Sub", "desc", Status.values()[random.nextInt(3)],
+                        epics.get(random.nextInt(epics.size())).getId(), start,
+                        Duration.ofMinutes(random.nextInt(1, 60)));
+                try {
+                    if (task instanceof Subtask subtask) {
+                        manager.createSubtask(subtask);
+                    } else {
+                        manager.createTask(task);
+                    }
+                    assertTrue(ids.add(task.getId()));
+                } catch (IntersectionException e) {
+                    // ожидаемо: слот занят другой задачей
+                }
+            }
+            return null;
+        });
+
+        assertFalse(ids.isEmpty());
+        assertConsistent();
+    }
+
+    @Test
+    @DisplayName("Подзадачу нельзя перенести в другой эпик")
+    void shouldRejectMovingSubtaskToAnotherEpic() {
+        Epic first = new Epic("First", "desc");
+        Epic second = new Epic("Second", "desc");
+        manager.createEpic(first);
+        manager.createEpic(second);
+        Subtask subtask = new Subtask("Sub", "desc", Status.DONE, first.getId(), null, null);
+        manager.createSubtask(subtask);
+
+        Subtask moved = new Subtask("Sub", "desc", Status.DONE, second.getId(), null, null);
+        moved.setId(subtask.getId());
+
+        assertThrows(IllegalArgumentException.class, () -> manager.updateSubtask(moved));
+        assertEquals(List.of(subtask), manager.getSubtasksByEpicId(first.getId()));
+    }
+
+    @Test
+    @DisplayName("Смешанная нагрузка из многих потоков оставляет состояние согласованным")
+    void shouldStayConsistentUnderMixedLoad() throws Exception {
+        runConcurrently(THREADS, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 3_000; i++) {
+                int id = random.nextInt(1, 400);
+                LocalDateTime start = BASE.plusMinutes(random.nextInt(50_000));
+                Duration duration = Duration.ofMinutes(random.nextInt(1, 90));
+                try {
+                    switch (random.nextInt(12)) {
+                        case 0 -> manager.createEpic(new Epic("Epic", "desc"));
+                        case 1, 2 -> manager.createSubtask(new Subtask("Sub", "desc",
+                                Status.values()[random.nextInt(3)], id, start, duration));
+                        case 3 -> manager.createTask(new Task("Task", "desc", Status.NEW, start, duration));
+                        case 4 -> {
+                            int epicId = manager.getSubtaskById(id).getEpicId();
+                            Subtask update = new Subtask("Upd", "desc", Status.values()[random.nextInt(3)],
+                                    epicId, start, duration);
+                            update.setId(id);
+                            manager.updateSubtask(update);
+                        }
+                        case 5 -> {
+                            Task update = new Task("Upd", "desc", Status.DONE, start, duration);
+                            update.setId(id);
+                            manager.updateTask(update);
+                        }
+                        case 6 -> manager.deleteSubtaskById(id);
+                        case 7 -> manager.deleteTaskById(id);
+                        case 8 -> {
+                            if (random.nextInt(20) == 0) manager.deleteEpicById(id);
+                        }
+                        case 9 -> manager.getSubtaskById(id);
+                        case 10 -> manager.getEpicById(id);
+                        default -> manager.getSubtasksByEpicId(id);
+                    }
+                } catch (IntersectionException | NotFoundException e) {
+                    // ожидаемо при случайных id и времени
+                }
+            }
+            return null;
+        });
+
+        assertConsistent();
+    }
+
+    @Test
+    @DisplayName("Читатели без блокировки видят эпик целиком до или после изменения")
+    void shouldPublishEpicUpdatesAtomically() throws Exception {
+        Epic epic = new Epic("Name 0", "Desc 0");
+        manager.createEpic(epic);
+        int epicId = epic.getId();
+        AtomicInteger roles = new AtomicInteger();
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        runConcurrently(4, () -> {
+            if (roles.getAndIncrement() == 0) {
+                try {
+                    List<Integer> created = new ArrayList<>();
+                    for (int i = 1; i <= 3_000; i++) {
+                        Epic update = new Epic("Name " + i, "Desc " + i);
+                        update.setId(epicId);
+                        manager.updateEpic(update);
+                        Subtask subtask = new Subtask("Sub", "desc", Status.DONE, epicId, null, null);
+                        manager.createSubtask(subtask);
+                        created.add(subtask.getId());
+                        // Удаления из середины оставляют дыры в списке id подзадач
+                        if (created.size() > 12) {
+                            manager.deleteSubtaskById(created.remove(created.size() / 2));
+                        }
+                    }
+                } finally {
+                    writing.set(false);
+                }
+                return null;
+            }
+            while (writing.get()) {
+                for (Epic seen : List.of(manager.getEpicById(epicId), manager.getAllEpics().getFirst())) {
+                    assertEquals(seen.getName().substring(5), seen.getDescription().substring(5),
+                            "Имя и описание из разных обновлений");
+                    List<Integer> ids = new ArrayList<>();
+                    seen.getSubtaskIds().forEachInt(ids::add);
+                    assertEquals(seen.getSubtaskIds().size(), ids.size());
+                    assertEquals(ids.size(), new HashSet<>(ids).size());
+                    assertEquals(ids.isEmpty() ? Status.NEW : Status.DONE, seen.getStatus());
+                }
+            }
+            return null;
+        });
+
+        assertEquals(12, manager.getEpicById(epicId).getSubtaskIds().size());
+        assertEquals(12, manager.getSubtasksByEpicId(epicId).size());
+        assertConsistent();
+    }
+}
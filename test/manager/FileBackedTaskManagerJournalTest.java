@@ -0,0 +1,191 @@
+package manager;
+
+import manager.task.FileBackedTaskManager;
+import manager.task.PersistenceConfig;
+import manager.task.TaskJournal;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты FileBackedTaskManager в режиме журнала")
+class FileBackedTaskManagerJournalTest extends TaskManagerTest<FileBackedTaskManager> {
+
+    private static final PersistenceConfig CONFIG = PersistenceConfig.journal(50);
+
+    private File tempFile;
+    private File journalFile;
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(tempFile.toPath());
+        Files.deleteIfExists(journalFile.toPath());
+    }
+
+    @Override
+    protected FileBackedTaskManager createManager() {
+        try {
+            tempFile = File.createTempFile("test_journal", ".csv");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        journalFile = TaskJournal.journalFileFor(tempFile);
+        return new FileBackedTaskManager(tempFile, CONFIG);
+    }
+
+    @Test
+    @DisplayName("Изменения дописываются в журнал без перезаписи снимка")
+    void shouldAppendToJournalWithoutRewritingSnapshot() throws IOException {
+        manager.createTask(new Task("First", "desc", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(30)));
+        String snapshot = Files.readString(tempFile.toPath());
+
+        manager.createTask(new Task("Second", "desc", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, 11, 0), Duration.ofMinutes(30)));
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+
+        assertEquals(snapshot, Files.readString(tempFile.toPath()), "Снимок не должен перезаписываться");
+        assertEquals(2, TaskJournal.readRecords(journalFile).size());
+    }
+
+    @Test
+    @DisplayName("Загрузка воспроизводит журнал поверх снимка")
+    void shouldReplayJournalOnLoad() {
+        Task task = new Task("Task", "desc", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(30));
+        manager.createTask(task);
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        Subtask sub1 = new Subtask("Sub1", "desc", Status.DONE, epic.getId(),
+                LocalDateTime.of(2025, 1, 1, 11, 0), Duration.ofMinutes(30));
+        Subtask sub2 = new Subtask("Sub2", "desc", Status.NEW, epic.getId(),
+                LocalDateTime.of(2025, 1, 1, 12, 0), Duration.ofMinutes(30));
+        manager.createSubtask(sub1);
+        manager.createSubtask(sub2);
+        task.setName("Renamed");
+        manager.updateTask(task);
+        manager.deleteSubtaskById(sub2.getId());
+        manager.getSubtaskById(sub1.getId());
+        manager.getTaskById(task.getId());
+        manager.flush();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+
+        assertEquals("Renamed", loaded.getAllTasks().getFirst().getName());
+        assertEquals(List.of(sub1), loaded.getAllSubtasks());
+        Epic loadedEpic = loaded.getAllEpics().getFirst();
+        assertEquals(Status.DONE, loadedEpic.getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 30), loadedEpic.getEndTime());
+        assertEquals(List.of(sub1, task), loaded.getHistory());
+        assertEquals(List.of(task, sub1), loaded.getPrioritizedTasks());
+    }
+
+    @Test
+    @DisplayName("Удаление эпика и очистка воспроизводятся из журнала")
+    void shouldReplayDeletesAndClears() {
+        manager.createTask(new Task("Task", "desc", Status.NEW, null, null));
+        Epic kept = new Epic("Kept", "desc");
+        Epic removed = new Epic("Removed", "desc");
+        manager.createEpic(kept);
+        manager.createEpic(removed);
+        Subtask orphan = new Subtask("Orphan", "desc", Status.NEW, removed.getId(), null, null);
+        manager.createSubtask(orphan);
+        manager.getSubtaskById(orphan.getId());
+        manager.deleteEpicById(removed.getId());
+        manager.clearTasks();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+
+        assertTrue(loaded.getAllTasks().isEmpty());
+        assertEquals(List.of(kept), loaded.getAllEpics());
+        assertTrue(loaded.getAllSubtasks().isEmpty());
+        assertTrue(loaded.getHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Просмотры не пишутся в журнал до следующего сброса")
+    void shouldDeferViewRecords() {
+        Epic first = new Epic("First", "desc");
+        Epic second = new Epic("Second", "desc");
+        manager.createEpic(first);
+        manager.createEpic(second);
+        manager.getEpicById(first.getId());
+        manager.getEpicById(second.getId());
+        manager.getEpicById(first.getId());
+
+        assertEquals(1, TaskJournal.readRecords(journalFile).size());
+
+        manager.flush();
+
+        assertEquals(3, TaskJournal.readRecords(journalFile).size());
+        assertEquals(List.of(second, first), FileBackedTaskManager.loadFromFile(tempFile, CONFIG).getHistory());
+    }
+
+    @Test
+    @DisplayName("После порога журнал сжимается в новый снимок")
+    void shouldCompactJournalAfterThreshold() {
+        for (int i = 0; i < 60; i++) {
+            manager.createEpic(new Epic("Epic " + i, "desc"));
+        }
+
+        assertTrue(TaskJournal.readRecords(journalFile).size() < 50);
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+        assertEquals(60, loaded.getAllEpics().size());
+    }
+
+    @Test
+    @DisplayName("Недописанная последняя запись журнала игнорируется")
+    void shouldIgnoreTornLastRecord() throws IOException {
+        manager.createEpic(new Epic("Epic 1", "desc"));
+        manager.createEpic(new Epic("Epic 2", "desc"));
+        try (FileWriter writer = new FileWriter(journalFile, true)) {
+            writer.write("PUT,3,EPIC,Bro");
+        }
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+
+        assertEquals(2, loaded.getAllEpics().size());
+    }
+
+    @Test
+    @DisplayName("Недописанная запись обрезается при загрузке, и новые записи читаются")
+    void shouldTruncateTornRecordBeforeAppending() throws IOException {
+        manager.createEpic(new Epic("Epic 1", "desc"));
+        manager.createEpic(new Epic("Epic 2", "desc"));
+        try (FileWriter writer = new FileWriter(journalFile, true)) {
+            writer.write("PUT,3,EPIC,Bro");
+        }
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+        loaded.createEpic(new Epic("Epic 3", "desc"));
+        loaded.close();
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+        assertEquals(3, reloaded.getAllEpics().size());
+        assertFalse(Files.readString(journalFile.toPath()).contains("Bro"));
+    }
+
+    @Test
+    @DisplayName("Загрузка без журнала переносит журнал в снимок")
+    void shouldFoldJournalIntoSnapshotWhenJournalDisabled() {
+        manager.createEpic(new Epic("Epic 1", "desc"));
+        manager.createEpic(new Epic("Epic 2", "desc"));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(2, loaded.getAllEpics().size());
+        assertTrue(TaskJournal.readRecords(journalFile).isEmpty());
+        loaded.createEpic(new Epic("Epic 3", "desc"));
+        assertEquals(3, FileBackedTaskManager.loadFromFile(tempFile).getAllEpics().size());
+    }
+}
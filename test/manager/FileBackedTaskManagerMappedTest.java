@@ -0,0 +1,119 @@
+package manager;
+
+import manager.task.FileBackedTaskManager;
+import manager.task.PersistenceConfig;
+import manager.task.SnapshotFormat;
+import manager.task.TaskJournal;
+import manager.task.exception.IntersectionException;
+import manager.task.exception.NotFoundException;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты загрузки FileBackedTaskManager из отображённого в память снимка")
+class FileBackedTaskManagerMappedTest {
+
+    private static final PersistenceConfig CONFIG = PersistenceConfig.snapshot()
+            .withFormat(SnapshotFormat.BINARY)
+            .withMappedLoad(true);
+
+    private File tempFile;
+    private Task task;
+    private Epic epic;
+    private Subtask first;
+    private Subtask second;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = File.createTempFile("test_mapped", ".bin");
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, CONFIG);
+        task = new Task("Task", "desc", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, 9, 0), Duration.ofMinutes(30));
+        manager.createTask(task);
+        epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        first = new Subtask("First", "desc", Status.DONE, epic.getId(),
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(30));
+        second = new Subtask("Second", "desc", Status.NEW, epic.getId(),
+                LocalDateTime.of(2025, 1, 1, 11, 0), Duration.ofMinutes(30));
+        manager.createSubtask(first);
+        manager.createSubtask(second);
+        manager.getSubtaskById(second.getId());
+        manager.close();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(tempFile.toPath());
+        Files.deleteIfExists(TaskJournal.journalFileFor(tempFile).toPath());
+    }
+
+    @Test
+    @DisplayName("Задачи разбираются по обращению по id и совпадают с сохранёнными")
+    void shouldReadTasksById() {
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+
+        assertEquals(List.of(second), loaded.getHistory());
+        Epic loadedEpic = loaded.getEpicById(epic.getId());
+        assertEquals(Status.IN_PROGRESS, loadedEpic.getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 11, 30), loadedEpic.getEndTime());
+        assertEquals(List.of(first.getId(), second.getId()), loadedEpic.getSubtaskIds());
+        assertEquals(List.of(first, second), loaded.getSubtasksByEpicId(epic.getId()));
+        assertEquals("Task", loaded.getTaskById(task.getId()).getName());
+        assertThrows(NotFoundException.class, () -> loaded.getTaskById(epic.getId()));
+        assertThrows(NotFoundException.class, () -> loaded.getSubtaskById(100));
+    }
+
+    @Test
+    @DisplayName("Операции над всей доской видят все задачи снимка")
+    void shouldMaterializeForBoardWideReads() {
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+        Subtask viewed = loaded.getSubtaskById(first.getId());
+
+        assertEquals(List.of(task, first, second), loaded.getPrioritizedTasks());
+        assertSame(viewed, loaded.getAllSubtasks().stream()
+                .filter(s -> s.getId() == first.getId()).findFirst().orElseThrow());
+        assertEquals(List.of(first.getId(), second.getId()), loaded.getAllEpics().getFirst().getSubtaskIds());
+    }
+
+    @Test
+    @DisplayName("Изменение после ленивой загрузки сохраняет весь снимок")
+    void shouldKeepUntouchedTasksOnSave() {
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+        loaded.getTaskById(task.getId());
+
+        Task added = new Task("Added", "desc", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, 10, 15), Duration.ofMinutes(10));
+        assertThrows(IntersectionException.class, () -> loaded.createTask(added),
+                "Пересечение должно проверяться и с неразобранными подзадачами");
+        loaded.createTask(new Task("Later", "desc", Status.NEW, null, null));
+        loaded.deleteSubtaskById(first.getId());
+
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(2, reloaded.getAllTasks().size());
+        assertEquals(List.of(second), reloaded.getAllSubtasks());
+        assertEquals(Status.NEW, reloaded.getEpicById(epic.getId()).getStatus());
+        assertEquals(6, reloaded.getAllTasks().getLast().getId());
+    }
+
+    @Test
+    @DisplayName("CSV-снимок загружается обычным способом")
+    void shouldFallBackToEagerLoadForCsv() {
+        FileBackedTaskManager csvManager = FileBackedTaskManager.loadFromFile(tempFile,
+                PersistenceConfig.snapshot());
+        csvManager.createEpic(new Epic("Another", "desc"));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile, CONFIG);
+
+        assertEquals(2, loaded.getAllEpics().size());
+        assertEquals(List.of(task, first, second), loaded.getPrioritizedTasks());
+    }
+}
@@ -1,14 +1,18 @@
 package manager;
 
+import manager.task.BatchOperation;
 import manager.task.FileBackedTaskManager;
+import manager.task.exception.BatchException;
 import model.*;
 import org.junit.jupiter.api.*;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -63,6 +67,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
 
         manager.getTaskById(task.getId());
         manager.getSubtaskById(sub.getId());
+        manager.flush();
 
         FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
 
@@ -115,6 +120,44 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
                 "Продолжительность эпика должна быть суммой продолжительностей подзадач");
     }
 
+    @Test
+    @DisplayName("Загрузка из файла не перезаписывает файл")
+    void shouldNotRewriteFileOnLoad() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            Epic epic = new Epic("Epic " + i, "desc");
+            manager.createEpic(epic);
+            manager.createSubtask(new Subtask("Sub " + i, "desc", Status.IN_PROGRESS, epic.getId(),
+                    LocalDateTime.of(2025, 1, 1, 10, 0).plusHours(i), Duration.ofMinutes(30)));
+        }
+        String before = Files.readString(tempFile.toPath());
+        assertTrue(tempFile.setLastModified(0));
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(0, tempFile.lastModified(), "Файл не должен перезаписываться при загрузке");
+        assertEquals(before, Files.readString(tempFile.toPath()));
+        assertEquals(20, loaded.getAllEpics().size());
+        loaded.getAllEpics().forEach(epic -> assertEquals(Status.IN_PROGRESS, epic.getStatus()));
+    }
+
+    @Test
+    @DisplayName("Чтение задачи не записывает файл, история сохраняется со следующим изменением")
+    void shouldNotWriteOnReadAndPersistHistoryWithNextChange() {
+        Task task = new Task("T", "desc", Status.NEW,
+                LocalDateTime.of(2025, 5, 5, 10, 0), Duration.ofMinutes(30));
+        manager.createTask(task);
+        assertTrue(tempFile.setLastModified(0));
+
+        manager.getTaskById(task.getId());
+
+        assertEquals(0, tempFile.lastModified(), "Чтение не должно перезаписывать файл");
+        assertTrue(FileBackedTaskManager.loadFromFile(tempFile).getHistory().isEmpty());
+
+        manager.createEpic(new Epic("Epic", "desc"));
+
+        assertEquals(List.of(task), FileBackedTaskManager.loadFromFile(tempFile).getHistory());
+    }
+
     @Test
     @DisplayName("Исключение при загрузке некорректной строки CSV")
     void shouldThrowWhenLoadingBrokenLine() throws IOException {
@@ -146,6 +189,7 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         manager.getTaskById(task.getId());
         manager.getEpicById(epic.getId());
         manager.getSubtaskById(sub.getId());
+        manager.flush();
 
         FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
 
@@ -190,4 +234,28 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertNotEquals(t1.getId(), t2.getId());
         assertTrue(t2.getId() > t1.getId());
     }
+
+    @Test
+    @DisplayName("Пачка сохраняется вместе, отклонённая пачка файл не меняет")
+    void shouldPersistBatchOnce() throws IOException {
+        Epic epic = new Epic("Sprint", "Desc");
+        List<BatchOperation> operations = new ArrayList<>();
+        operations.add(BatchOperation.create(epic));
+        for (int i = 0; i < 20; i++) {
+            operations.add(BatchOperation.create(new Subtask("Sub " + i, "Desc", Status.NEW,
+                    BatchOperation.epicRef(0), LocalDateTime.of(2025, 10, 1, 0, 0).plusHours(i), Duration.ofMinutes(30))));
+        }
+        manager.applyAll(operations);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(20, loaded.getSubtasksByEpicId(epic.getId()).size());
+        assertEquals(manager.getEpicById(epic.getId()).getStartTime(), loaded.getEpicById(epic.getId()).getStartTime());
+
+        byte[] saved = Files.readAllBytes(tempFile.toPath());
+        assertThrows(BatchException.class, () -> manager.applyAll(List.of(
+                BatchOperation.create(new Task("Task", "Desc", Status.NEW, null, null)),
+                BatchOperation.create(new Subtask("Overlap", "Desc", Status.NEW, epic.getId(),
+                        LocalDateTime.of(2025, 10, 1, 0, 10), Duration.ofMinutes(5))))));
+        assertArrayEquals(saved, Files.readAllBytes(tempFile.toPath()));
+    }
 }
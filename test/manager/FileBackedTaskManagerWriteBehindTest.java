@@ -0,0 +1,165 @@
+package manager;
+
+import manager.task.Durability;
+import manager.task.FileBackedTaskManager;
+import manager.task.PersistenceConfig;
+import manager.task.TaskJournal;
+import manager.task.exception.ManagerSaveException;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты отложенной записи FileBackedTaskManager")
+class FileBackedTaskManagerWriteBehindTest {
+
+    private File tempFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = File.createTempFile("test_write_behind", ".csv");
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(tempFile.toPath());
+        Files.deleteIfExists(TaskJournal.journalFileFor(tempFile).toPath());
+    }
+
+    private Task task(int hour) {
+        return new Task("Task " + hour, "desc", Status.NEW,
+                LocalDateTime.of(2025, 1, 1, hour, 0), Duration.ofMinutes(30));
+    }
+
+    private int loadedTaskCount() {
+        return FileBackedTaskManager.loadFromFile(tempFile).getAllTasks().size();
+    }
+
+    @Test
+    @DisplayName("Изменения копятся в памяти до явного flush")
+    void shouldCoalesceChangesUntilFlush() {
+        PersistenceConfig config = PersistenceConfig.snapshot().withWriteBehind(60_000, 100);
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, config)) {
+            manager.createTask(task(10));
+            manager.createTask(task(11));
+
+            assertEquals(0, tempFile.length(), "До сброса файл не должен меняться");
+
+            manager.flush();
+            assertEquals(2, loadedTaskCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Закрытие менеджера сохраняет несохранённые изменения")
+    void shouldFlushOnClose() {
+        PersistenceConfig config = PersistenceConfig.journal(100)
+                .withWriteBehind(60_000, 100)
+                .withDurability(Durability.BATCHED);
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, config);
+        manager.createTask(task(10));
+        manager.createTask(task(11));
+        manager.createTask(task(12));
+
+        manager.close();
+
+        assertEquals(3, FileBackedTaskManager.loadFromFile(tempFile, config).getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Достижение порога изменений запускает фоновый сброс")
+    void shouldFlushInBackgroundWhenThresholdReached() throws InterruptedException {
+        PersistenceConfig config = PersistenceConfig.snapshot().withWriteBehind(60_000, 3);
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, config)) {
+            manager.createTask(task(10));
+            manager.createTask(task(11));
+            manager.createTask(task(12));
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (tempFile.length() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(3, loadedTaskCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Сброс по интервалу выполняется фоновым потоком")
+    void shouldFlushPeriodically() throws InterruptedException {
+        PersistenceConfig config = PersistenceConfig.snapshot().withWriteBehind(20, 1000);
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, config)) {
+            manager.createTask(task(10));
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (tempFile.length() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, loadedTaskCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Ошибка фонового сброса передаётся следующему flush, а изменения не теряются")
+    void shouldReportBackgroundFailureOnNextFlush() throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("test_write_behind").toFile();
+        File file = new File(dir, "tasks.csv");
+        PersistenceConfig config = PersistenceConfig.snapshot().withWriteBehind(20, 1000);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, config);
+        assertTrue(dir.delete());
+        manager.createTask(task(10));
+        Thread.sleep(200);
+
+        assertTrue(dir.mkdir());
+        assertThrows(ManagerSaveException.class, manager::flush);
+        manager.close();
+
+        assertEquals(1, FileBackedTaskManager.loadFromFile(file).getAllTasks().size());
+        Files.delete(file.toPath());
+        Files.delete(dir.toPath());
+    }
+
+    @Test
+    @DisplayName("После неудачного фонового сброса следующее изменение сверх порога снова запускает сброс")
+    void shouldRetryBackgroundFlushAfterFailure() throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("test_write_behind").toFile();
+        File file = new File(dir, "tasks.csv");
+        PersistenceConfig config = PersistenceConfig.snapshot().withWriteBehind(60_000, 2);
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, config);
+        assertTrue(dir.delete());
+        manager.createTask(task(10));
+        manager.createTask(task(11));
+        Thread.sleep(200);
+
+        assertTrue(dir.mkdir());
+        manager.createTask(task(12));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (file.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, FileBackedTaskManager.loadFromFile(file).getAllTasks().size());
+
+        assertThrows(ManagerSaveException.class, manager::flush);
+        manager.close();
+        Files.delete(file.toPath());
+        Files.delete(dir.toPath());
+    }
+
+    @Test
+    @DisplayName("Уровень EVERY_OP записывает каждое изменение сразу")
+    void shouldWriteImmediatelyWithEveryOpDurability() {
+        PersistenceConfig config = PersistenceConfig.snapshot()
+                .withWriteBehind(60_000, 100)
+                .withDurability(Durability.EVERY_OP);
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(tempFile, config)) {
+            manager.createTask(task(10));
+
+            assertEquals(1, loadedTaskCount());
+        }
+    }
+}
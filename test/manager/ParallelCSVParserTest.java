@@ -0,0 +1,104 @@
+package manager;
+
+import manager.task.FileBackedTaskManager;
+import manager.task.ParallelCSVParser;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты параллельного разбора CSV")
+class ParallelCSVParserTest {
+
+    private File tempFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = File.createTempFile("test_parallel", ".csv");
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(tempFile.toPath());
+    }
+
+    private FileBackedTaskManager fillManager() {
+        FileBackedTaskManager manager = new FileBackedTaskManager(tempFile);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < 40; i++) {
+            Epic epic = new Epic("Эпик " + i, "строка,\nс переносом \"и кавычками\"");
+            manager.createEpic(epic);
+            manager.createTask(new Task("Задача " + i, "desc", Status.NEW,
+                    base.plusHours(i * 3L), Duration.ofMinutes(30)));
+            for (int j = 0; j < 3; j++) {
+                manager.createSubtask(new Subtask("Подзадача\n" + j, "desc", Status.values()[j], epic.getId(),
+                        base.plusHours(i * 3L + 1).plusMinutes(j * 20L), Duration.ofMinutes(10)));
+            }
+            if (i % 7 == 0) {
+                manager.getEpicById(epic.getId());
+            }
+        }
+        manager.flush();
+        return manager;
+    }
+
+    @Test
+    @DisplayName("Разбор мелкими блоками совпадает с последовательной загрузкой")
+    void shouldMatchSequentialLoad() {
+        fillManager();
+        FileBackedTaskManager sequential = FileBackedTaskManager.loadFromFile(tempFile);
+
+        for (int chunkSize : new int[]{1, 64, 1000, Integer.MAX_VALUE}) {
+            ParallelCSVParser.Snapshot snapshot = ParallelCSVParser.parse(tempFile, chunkSize);
+
+            List<Task> expected = new ArrayList<>();
+            expected.addAll(sequential.getAllTasks());
+            expected.addAll(sequential.getAllEpics());
+            expected.addAll(sequential.getAllSubtasks());
+            assertEquals(expected, snapshot.tasks(), "Блок " + chunkSize);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getName(), snapshot.tasks().get(i).getName());
+                assertEquals(expected.get(i).getDescription(), snapshot.tasks().get(i).getDescription());
+            }
+            assertEquals(sequential.getHistory().stream().map(Task::getId).toList(), snapshot.history());
+        }
+    }
+
+    @Test
+    @DisplayName("Ошибка разбора указывает номер записи")
+    void shouldReportRowNumber() throws IOException {
+        Files.writeString(tempFile.toPath(), """
+                id,type,name,status,description,epic,startTime,duration,endTime
+                1,TASK,"Первая
+                задача",NEW,desc,,,,
+                2,TASK,Вторая,NEW,desc,,,,
+                3,TASK,Третья,UNKNOWN,desc,,,,
+
+                2
+                """);
+
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> ParallelCSVParser.parse(tempFile, 1));
+
+        assertTrue(exception.getMessage().contains("№4"), exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Пустой снимок разбирается без ошибок")
+    void shouldParseEmptySnapshot() throws IOException {
+        Files.writeString(tempFile.toPath(), "id,type,name,status,description,epic,startTime,duration,endTime\n");
+
+        ParallelCSVParser.Snapshot snapshot = ParallelCSVParser.parse(tempFile, 16);
+
+        assertTrue(snapshot.tasks().isEmpty());
+        assertTrue(snapshot.history().isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package manager;
+
+import manager.task.PersistentTree;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentTreeTest {
+
+    @Test
+    @DisplayName("Результаты совпадают с TreeMap на случайных операциях")
+    void matchesTreeMap() {
+        Random random = new Random(3);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        PersistentTree<Integer, String> tree = PersistentTree.empty();
+
+        for (int step = 0; step < 20_000; step++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                tree = tree.remove(key);
+            } else {
+                expected.put(key, "v" + step);
+                tree = tree.put(key, "v" + step);
+            }
+            assertEquals(expected.size(), tree.size());
+            assertEquals(expected.get(key), tree.get(key));
+        }
+        assertEquals(new ArrayList<>(expected.values()), tree.values());
+        List<String> values = tree.values();
+        int index = random.nextInt(values.size());
+        assertEquals(new ArrayList<>(expected.values()).get(index), values.get(index));
+    }
+
+    @Test
+    @DisplayName("Изменение не затрагивает предыдущие версии")
+    void previousVersionsStayUnchanged() {
+        PersistentTree<Integer, String> empty = PersistentTree.empty();
+        PersistentTree<Integer, String> first = empty.put(1, "a").put(2, "b");
+        PersistentTree<Integer, String> second = first.put(2, "c").remove(1).put(3, "d");
+
+        assertTrue(empty.isEmpty());
+        assertEquals(List.of("a", "b"), first.values());
+        assertEquals(List.of("c", "d"), second.values());
+        assertSame(second, second.remove(42));
+        assertThrows(IndexOutOfBoundsException.class, () -> first.values().get(2));
+    }
+
+    @Test
+    @DisplayName("Выборки по диапазону ключей обходят только нужную часть дерева")
+    void valuesAfterStartsAfterKey() {
+        PersistentTree<Integer, String> tree = PersistentTree.empty();
+        for (int key = 2; key <= 40; key += 2) {
+            tree = tree.put(key, "v" + key);
+        }
+
+        assertEquals(List.of("v2", "v4", "v6"), tree.valuesAfter(null, 3));
+        assertEquals(List.of("v12", "v14"), tree.valuesAfter(10, 2));
+        assertEquals(List.of("v12", "v14"), tree.valuesAfter(11, 2));
+        assertEquals(List.of("v38", "v40"), tree.valuesAfter(36, 10));
+        assertTrue(tree.valuesAfter(40, 10).isEmpty());
+        assertTrue(tree.valuesAfter(0, 0).isEmpty());
+        assertEquals(tree.values(), tree.valuesAfter(null, 100));
+
+        assertEquals(List.of("v10", "v12"), tree.valuesBetween(10, 14));
+        assertEquals(List.of("v12"), tree.valuesBetween(11, 13));
+        assertTrue(tree.valuesBetween(41, 50).isEmpty());
+        assertEquals("v8", tree.lowerValue(10));
+        assertEquals("v10", tree.lowerValue(11));
+        assertNull(tree.lowerValue(2));
+    }
+}
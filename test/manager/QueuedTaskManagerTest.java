@@ -0,0 +1,145 @@
+package manager;
+
+import manager.task.QueuedTaskManager;
+import manager.task.VersionedTaskManager;
+import manager.task.exception.IntersectionException;
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты QueuedTaskManager")
+class QueuedTaskManagerTest extends TaskManagerTest<QueuedTaskManager> {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Override
+    protected QueuedTaskManager createManager() {
+        return new QueuedTaskManager();
+    }
+
+    @AfterEach
+    void closeManager() {
+        manager.close();
+    }
+
+    @Test
+    @DisplayName("Команды одной пачки публикуются одной версией")
+    void shouldPublishBatchAsSingleVersion() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        long before = manager.currentVersion().number();
+
+        // Писатель занят, пока не откроем защёлку, поэтому остальные команды попадут в одну пачку
+        CountDownLatch gate = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = manager.submit(m -> awaitQuietly(gate));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Subtask subtask = new Subtask("Sub " + i, "desc", Status.DONE, epic.getId(),
+                    BASE.plusHours(i), Duration.ofMinutes(30));
+            futures.add(manager.submit(m -> m.createSubtask(subtask)));
+        }
+        gate.countDown();
+        blocker.join();
+        futures.forEach(CompletableFuture::join);
+
+        VersionedTaskManager.Version after = manager.currentVersion();
+        assertTrue(after.number() - before <= 2, "Ожидалось не больше двух публикаций: " + after.number());
+        assertEquals(10, after.getSubtasksByEpicId(epic.getId()).size());
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+        assertEquals(10, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    @DisplayName("Ошибка команды возвращается вызывающему и не мешает остальным командам пачки")
+    void shouldPropagateCommandFailure() {
+        manager.createTask(new Task("Task", "desc", Status.NEW, BASE, Duration.ofMinutes(60)));
+
+        CompletableFuture<Void> failed = manager.submit(m -> m.createTask(
+                new Task("Overlap", "desc", Status.NEW, BASE.plusMinutes(30), Duration.ofMinutes(60))));
+        CompletableFuture<Void> ok = manager.submit(m -> m.createTask(
+                new Task("Later", "desc", Status.NEW, BASE.plusHours(2), Duration.ofMinutes(60))));
+
+        ok.join();
+        assertTrue(failed.isCompletedExceptionally());
+        assertThrows(IntersectionException.class, () -> manager.createTask(
+                new Task("Overlap", "desc", Status.NEW, BASE.plusMinutes(10), Duration.ofMinutes(10))));
+        assertEquals(2, manager.getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Error в команде завершает её future, а писатель продолжает работу")
+    void shouldSurviveErrorInCommand() {
+        CompletableFuture<Void> failed = manager.submit(m -> {
+            throw new AssertionError("сбой команды");
+        });
+
+        CompletionException thrown = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(AssertionError.class, thrown.getCause());
+        manager.createTask(new Task("Task", "desc", Status.NEW, BASE, Duration.ofMinutes(60)));
+        assertEquals(1, manager.getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Параллельные записи выполняются все и видны после возврата")
+    void shouldCompleteConcurrentSubmissions() throws Exception {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        Subtask subtask = new Subtask("Sub", "desc", Status.IN_PROGRESS, epic.getId(),
+                                BASE.plusHours(thread * 100L + i), Duration.ofMinutes(30));
+                        manager.createSubtask(subtask);
+                        assertNotNull(manager.getSubtaskById(subtask.getId()));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(200, manager.getSubtasksByEpicId(epic.getId()).size());
+        assertEquals(200, manager.getPrioritizedTasks().size());
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("После закрытия ожидающие команды выполнены, новые отклоняются")
+    void shouldDrainAndRejectAfterClose() {
+        CompletableFuture<Void> pending = manager.submit(m -> m.createEpic(new Epic("Epic", "desc")));
+        manager.close();
+
+        assertTrue(pending.isDone());
+        assertEquals(1, manager.getAllEpics().size());
+        assertThrows(IllegalStateException.class, () -> manager.createEpic(new Epic("Late", "desc")));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package manager;
+
+import manager.task.TaskIntervalTree;
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskIntervalTreeTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final TaskIntervalTree tree = new TaskIntervalTree();
+
+    private Task task(int id, int startMinute, int durationMinutes) {
+        Task task = new Task("T" + id, "desc", Status.NEW,
+                BASE.plusMinutes(startMinute), Duration.ofMinutes(durationMinutes));
+        task.setId(id);
+        return task;
+    }
+
+    // Исходная линейная проверка из InMemoryTaskManager
+    private boolean linearIntersection(Iterable<Task> existing, Task newTask) {
+        LocalDateTime newStart = newTask.getStartTime();
+        LocalDateTime newEnd = newTask.getEndTime();
+        for (Task t : existing) {
+            if (t.getId() == newTask.getId()) continue;
+            if (!(newEnd.isBefore(t.getStartTime()) || newStart.isAfter(t.getEndTime()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Касание границ интервалов считается пересечением")
+    void touchingBoundariesIntersect() {
+        tree.add(task(1, 60, 60));
+
+        assertTrue(tree.hasIntersection(task(2, 120, 30)));
+        assertTrue(tree.hasIntersection(task(3, 30, 30)));
+        assertFalse(tree.hasIntersection(task(4, 121, 30)));
+        assertFalse(tree.hasIntersection(task(5, 0, 59)));
+    }
+
+    @Test
+    @DisplayName("Задача не пересекается сама с собой")
+    void taskDoesNotIntersectItself() {
+        Task task = task(1, 60, 60);
+        tree.add(task);
+
+        assertFalse(tree.hasIntersection(task));
+    }
+
+    @Test
+    @DisplayName("Задачи без времени не попадают в индекс")
+    void tasksWithoutTimeAreIgnored() {
+        Task noTime = new Task("NoTime", "desc", Status.NEW, null, null);
+        noTime.setId(1);
+        tree.add(noTime);
+
+        assertEquals(0, tree.size());
+        assertFalse(tree.hasIntersection(noTime));
+    }
+
+    @Test
+    @DisplayName("Удаление использует время на момент добавления")
+    void removeUsesIndexedTime() {
+        Task task = task(1, 60, 60);
+        tree.add(task);
+        task.setStartTime(BASE.plusDays(1));
+
+        tree.remove(1);
+
+        assertEquals(0, tree.size());
+        assertFalse(tree.hasIntersection(task(2, 60, 60)));
+    }
+
+    @Test
+    @DisplayName("Результаты совпадают с линейной проверкой на случайных данных")
+    void matchesLinearScan() {
+        Random random = new Random(42);
+        Map<Integer, Task> stored = new HashMap<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            int id = random.nextInt(300) + 1;
+            if (random.nextInt(4) == 0) {
+                stored.remove(id);
+                tree.remove(id);
+            } else {
+                Task candidate = task(id, random.nextInt(20_000), random.nextInt(120));
+                assertEquals(linearIntersection(stored.values(), candidate), tree.hasIntersection(candidate),
+                        "Расхождение с линейной проверкой на шаге " + step);
+                stored.put(id, candidate);
+                tree.add(candidate);
+            }
+            assertEquals(stored.size(), tree.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск пересекающих окно задач возвращает их по возрастанию начала")
+    void findIntersectingReturnsSortedMatches() {
+        Random random = new Random(7);
+        List<Task> all = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            Task t = task(id, random.nextInt(50_000), random.nextInt(90));
+            all.add(t);
+            tree.add(t);
+        }
+        LocalDateTime from = BASE.plusMinutes(10_000);
+        LocalDateTime to = BASE.plusMinutes(12_000);
+
+        List<Task> expected = all.stream()
+                .filter(t -> !t.getEndTime().isBefore(from) && !t.getStartTime().isAfter(to))
+                .sorted(Comparator.comparing(Task::getStartTime).thenComparing(Task::getId))
+                .toList();
+
+        assertEquals(expected, tree.findIntersecting(from, to));
+    }
+}
@@ -1,12 +1,20 @@
 package manager;
 
+import manager.history.HistoryEntry;
 import model.*;
+import manager.task.BatchOperation;
 import manager.task.TaskManager;
+import manager.task.exception.BatchException;
+import manager.task.exception.IntersectionException;
+import manager.task.exception.NotFoundException;
 import org.junit.jupiter.api.*;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -192,6 +200,84 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertThrows(IllegalArgumentException.class, () -> manager.createTask(task2));
     }
 
+    @Test
+    @DisplayName("Очистка задач не убирает подзадачи из проверки пересечений")
+    void clearTasksKeepsSubtasksScheduled() {
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        Subtask sub = new Subtask("Sub", "Desc", Status.NEW, epic.getId(),
+                LocalDateTime.of(2025, 7, 16, 10, 0), Duration.ofMinutes(60));
+        manager.createSubtask(sub);
+        manager.createTask(new Task("Task", "Desc", Status.NEW,
+                LocalDateTime.of(2025, 7, 16, 12, 0), Duration.ofMinutes(60)));
+
+        manager.clearTasks();
+
+        assertEquals(List.of(sub), manager.getPrioritizedTasks());
+        Task overlapping = new Task("Overlap", "Desc", Status.NEW,
+                LocalDateTime.of(2025, 7, 16, 10, 30), Duration.ofMinutes(10));
+        assertThrows(IllegalArgumentException.class, () -> manager.createTask(overlapping));
+    }
+
+    @Test
+    @DisplayName("Инкрементальный пересчёт эпика совпадает с полным пересчётом")
+    void incrementalEpicRollupMatchesFullRecalculation() {
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        Random random = new Random(11);
+        List<Integer> ids = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+        for (int step = 0; step < 300; step++) {
+            int action = random.nextInt(3);
+            Status status = Status.values()[random.nextInt(Status.values().length)];
+            LocalDateTime start = random.nextInt(5) == 0 ? null : base.plusMinutes(step * 100L);
+            Duration duration = random.nextInt(5) == 0 ? null : Duration.ofMinutes(random.nextInt(60) + 1);
+            if (action == 0 || ids.isEmpty()) {
+                Subtask sub = new Subtask("S" + step, "Desc", status, epic.getId(), start, duration);
+                manager.createSubtask(sub);
+                ids.add(sub.getId());
+            } else if (action == 1) {
+                int id = ids.get(random.nextInt(ids.size()));
+                Subtask sub = new Subtask("S" + step, "Desc", status, epic.getId(), start, duration);
+                sub.setId(id);
+                manager.updateSubtask(sub);
+            } else {
+                int id = ids.remove(random.nextInt(ids.size()));
+                manager.deleteSubtaskById(id);
+            }
+            assertEpicMatchesSubtasks(epic.getId());
+        }
+    }
+
+    protected void assertEpicMatchesSubtasks(int epicId) {
+        Epic epic = manager.getAllEpics().stream().filter(e -> e.getId() == epicId).findFirst().orElseThrow();
+        List<Subtask> subs = manager.getSubtasksByEpicId(epicId);
+        if (subs.isEmpty()) {
+            assertEquals(Status.NEW, epic.getStatus());
+            assertNull(epic.getStartTime());
+            assertNull(epic.getEndTime());
+            assertNull(epic.getDuration());
+            return;
+        }
+        boolean allNew = subs.stream().allMatch(st -> st.getStatus() == Status.NEW);
+        boolean allDone = subs.stream().allMatch(st -> st.getStatus() == Status.DONE);
+        LocalDateTime earliest = subs.getFirst().getStartTime();
+        LocalDateTime latest = subs.getFirst().getEndTime();
+        Duration total = Duration.ZERO;
+        for (Subtask st : subs) {
+            if (st.getStartTime() != null && st.getDuration() != null) {
+                if (earliest == null || st.getStartTime().isBefore(earliest)) earliest = st.getStartTime();
+                if (latest == null || st.getEndTime().isAfter(latest)) latest = st.getEndTime();
+                total = total.plus(st.getDuration());
+            }
+        }
+        assertEquals(allDone ? Status.DONE : allNew ? Status.NEW : Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(earliest, epic.getStartTime());
+        assertEquals(latest, epic.getEndTime());
+        assertEquals(total, epic.getDuration());
+    }
+
     @Test
     @DisplayName("Пустая история возвращает пустой список")
     void emptyHistoryIsEmpty() {
@@ -332,4 +418,305 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertTrue(subtasks.contains(s2));
     }
 
+    @Test
+    @DisplayName("Версия растёт при изменениях и не меняется при чтении")
+    void shouldTrackModificationVersions() {
+        long initial = manager.getVersion();
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        long epicVersion = manager.getVersion(TaskType.EPIC);
+        assertTrue(epicVersion > initial);
+
+        manager.getAllEpics();
+        manager.getEpicById(epic.getId());
+        manager.getPrioritizedTasks();
+        assertEquals(epicVersion, manager.getVersion(TaskType.EPIC), "Чтение не должно менять версию");
+
+        Subtask sub = new Subtask("Sub", "Desc", Status.DONE, epic.getId(),
+                LocalDateTime.of(2025, 1, 1, 10, 0), Duration.ofMinutes(20));
+        manager.createSubtask(sub);
+        long subtaskVersion = manager.getVersion(TaskType.SUBTASK);
+        assertTrue(subtaskVersion > epicVersion);
+        assertTrue(manager.getVersion(TaskType.EPIC) > epicVersion, "Подзадача меняет статус эпика");
+
+        long before = manager.getVersion();
+        manager.createTask(new Task("Task", "Desc", Status.NEW, LocalDateTime.of(2025, 1, 1, 12, 0),
+                Duration.ofMinutes(10)));
+        assertTrue(manager.getVersion(TaskType.TASK) > before);
+        assertEquals(manager.getVersion(TaskType.TASK), manager.getVersion());
+
+        manager.deleteSubtaskById(sub.getId());
+        assertTrue(manager.getVersion(TaskType.SUBTASK) > subtaskVersion);
+        assertTrue(manager.getVersion() >= manager.getVersion(TaskType.EPIC));
+    }
+
+    @Test
+    @DisplayName("Страницы задач, приоритетов и истории идут по курсору без пропусков")
+    void shouldPageCollections() {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 9, 0);
+        List<Task> created = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Времена идут в обратном порядке, чтобы порядок по приоритету отличался от порядка id
+            Task task = new Task("Task " + i, "Desc", Status.NEW, base.minusHours(i), Duration.ofMinutes(30));
+            manager.createTask(task);
+            created.add(task);
+        }
+        manager.createTask(new Task("No time", "Desc", Status.NEW, null, null));
+
+        List<Task> paged = new ArrayList<>();
+        int afterId = 0;
+        List<Task> page;
+        while (!(page = manager.getTasks(afterId, 3)).isEmpty()) {
+            assertTrue(page.size() <= 3);
+            paged.addAll(page);
+            afterId = page.get(page.size() - 1).getId();
+        }
+        assertEquals(manager.getAllTasks(), paged);
+
+        List<Task> prioritized = new ArrayList<>();
+        Task after = null;
+        while (!(page = manager.getPrioritizedTasks(after, 3)).isEmpty()) {
+            prioritized.addAll(page);
+            after = page.get(page.size() - 1);
+        }
+        assertEquals(manager.getPrioritizedTasks(), prioritized);
+
+        // Задача-курсор могла быть удалена: страница продолжается со следующей по порядку
+        Task removed = manager.getPrioritizedTasks().get(2);
+        manager.deleteTaskById(removed.getId());
+        assertEquals(manager.getPrioritizedTasks().subList(2, 4), manager.getPrioritizedTasks(removed, 2));
+
+        for (Task task : created.subList(0, 4)) {
+            manager.getTaskById(task.getId());
+        }
+        List<HistoryEntry> firstPage = manager.getHistory(0, 0, 2);
+        assertEquals(manager.getHistory().subList(0, 2), firstPage.stream().map(HistoryEntry::task).toList());
+        HistoryEntry cursor = firstPage.get(1);
+        assertEquals(List.of(created.get(2), created.get(3)), historyAfter(cursor, 5));
+
+        // Курсорную задачу просмотрели снова: она в конце, страница продолжается без пропусков
+        manager.getTaskById(cursor.task().getId());
+        assertEquals(List.of(created.get(2), created.get(3), created.get(1)), historyAfter(cursor, 5));
+        // Курсорную задачу удалили: страница продолжается с более поздних просмотров
+        manager.deleteTaskById(cursor.task().getId());
+        assertEquals(List.of(created.get(2), created.get(3)), historyAfter(cursor, 5));
+        assertTrue(manager.getEpics(0, 10).isEmpty());
+        assertTrue(manager.getSubtasks(0, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Окно времени отдаёт только пересекающие его задачи в порядке приоритета")
+    void shouldFindTasksInTimeWindow() {
+        LocalDateTime from = LocalDateTime.of(2025, 4, 7, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        Task endsAtFrom = new Task("Ends at from", "Desc", Status.NEW, from.minusHours(2), Duration.ofHours(2));
+        Task inside = new Task("Inside", "Desc", Status.NEW, from.plusDays(3), Duration.ofHours(1));
+        Task startsAtTo = new Task("Starts at to", "Desc", Status.NEW, to, Duration.ofHours(1));
+        Task noDuration = new Task("No duration", "Desc", Status.NEW, from.plusDays(1), null);
+        Task noTime = new Task("No time", "Desc", Status.NEW, null, null);
+        for (Task task : List.of(endsAtFrom, inside, startsAtTo, noDuration, noTime)) {
+            manager.createTask(task);
+        }
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Sub", "Desc", Status.NEW, epic.getId(), from.plusDays(5), Duration.ofHours(2));
+        manager.createSubtask(subtask);
+
+        assertEquals(List.of(inside, subtask), manager.getPrioritizedTasksBetween(from, to));
+        // Задача, начавшаяся до окна, попадает в него, если заканчивается внутри
+        assertEquals(List.of(inside), manager.getPrioritizedTasksBetween(from.plusDays(3).plusMinutes(30),
+                from.plusDays(4)));
+        assertEquals(List.of(endsAtFrom), manager.getPrioritizedTasksBetween(from.minusHours(1), from.plusHours(1)));
+        assertEquals(List.of(endsAtFrom), manager.getPrioritizedTasksBetween(null, from.plusMinutes(1)));
+        assertEquals(List.of(startsAtTo), manager.getPrioritizedTasksBetween(to, null));
+        assertTrue(manager.getPrioritizedTasksBetween(from.plusDays(4), from.plusDays(5)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Страницы окна времени продолжаются с курсора и совпадают с частями всего окна")
+    void shouldPageTimeWindowFromCursor() {
+        LocalDateTime from = LocalDateTime.of(2025, 4, 14, 9, 0);
+        LocalDateTime to = from.plusHours(10);
+        Task early = new Task("Early", "Desc", Status.NEW, from.minusHours(2), Duration.ofHours(3));
+        manager.createTask(early);
+        manager.createTask(new Task("Before", "Desc", Status.NEW, from.minusHours(5), Duration.ofHours(1)));
+        manager.createTask(new Task("No duration", "Desc", Status.NEW, from.plusHours(2), null));
+        for (int i = 0; i < 6; i++) {
+            manager.createTask(new Task("Task " + i, "Desc", Status.NEW, from.plusHours(2 + i), Duration.ofMinutes(30)));
+        }
+        manager.createTask(new Task("After", "Desc", Status.NEW, to, Duration.ofHours(1)));
+        List<Task> window = manager.getPrioritizedTasksBetween(from, to);
+        assertEquals(7, window.size());
+        assertEquals(early, window.get(0));
+
+        List<Task> paged = new ArrayList<>();
+        Task after = null;
+        List<Task> page;
+        do {
+            page = manager.getPrioritizedTasksBetween(from, to, after, 3);
+            paged.addAll(page);
+            if (!page.isEmpty()) after = page.get(page.size() - 1);
+        } while (page.size() == 3);
+        assertEquals(window, paged);
+
+        // Курсор раньше окна не возвращает задачи до from, удалённая курсорная задача не сбивает страницу
+        Task beforeWindow = new Task(null, null, null, from.minusHours(10), null);
+        beforeWindow.setId(0);
+        assertEquals(window.subList(0, 2), manager.getPrioritizedTasksBetween(from, to, beforeWindow, 2));
+        manager.deleteTaskById(window.get(2).getId());
+        assertEquals(window.subList(3, 5), manager.getPrioritizedTasksBetween(from, to, window.get(2), 2));
+        assertTrue(manager.getPrioritizedTasksBetween(from, to, null, 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Свободные промежутки лежат между задачами и принимают новую задачу без пересечения")
+    void shouldFindFreeSlots() {
+        LocalDateTime from = LocalDateTime.of(2025, 8, 4, 9, 0);
+        LocalDateTime to = from.plusHours(9);
+        // Началась до окна и заканчивается в нём
+        manager.createTask(new Task("Early", "Desc", Status.NEW, from.minusHours(1), Duration.ofMinutes(90)));
+        manager.createTask(new Task("No duration", "Desc", Status.NEW, from.plusHours(1), null));
+        Epic epic = new Epic("Epic", "Desc");
+        manager.createEpic(epic);
+        manager.createSubtask(new Subtask("Sub", "Desc", Status.NEW, epic.getId(), from.plusHours(3),
+                Duration.ofHours(1)));
+        manager.createTask(new Task("Short gap", "Desc", Status.NEW, from.plusHours(4).plusMinutes(30),
+                Duration.ofHours(1)));
+
+        List<TimeSlot> slots = manager.findFreeSlots(Duration.ofHours(1), from, to, 10);
+        assertEquals(List.of(
+                new TimeSlot(from.plusMinutes(31), from.plusHours(3).minusMinutes(1)),
+                new TimeSlot(from.plusHours(5).plusMinutes(31), to)), slots);
+        assertEquals(slots.subList(0, 1), manager.findFreeSlots(Duration.ofHours(1), from, to, 1));
+        assertTrue(manager.findFreeSlots(Duration.ofHours(4), from, to, 10).isEmpty());
+
+        for (TimeSlot slot : slots) {
+            Task task = new Task("Fits", "Desc", Status.NEW, slot.start(), slot.length());
+            assertDoesNotThrow(() -> manager.createTask(task));
+        }
+        // Остался только разрыв короче получаса перед задачей Short gap
+        assertTrue(manager.findFreeSlots(Duration.ofMinutes(30), from, to, 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> manager.findFreeSlots(Duration.ZERO, from, to, 1));
+        assertThrows(IllegalArgumentException.class, () -> manager.findFreeSlots(Duration.ofHours(1), to, from, 1));
+    }
+
+    @Test
+    @DisplayName("Пачка создаёт эпик с подзадачами по ссылке, обновляет и удаляет задачи")
+    void shouldApplyBatch() {
+        LocalDateTime base = LocalDateTime.of(2025, 9, 1, 9, 0);
+        Task old = new Task("Old", "Desc", Status.NEW, base, Duration.ofHours(1));
+        Task moved = new Task("Moved", "Desc", Status.NEW, base.plusHours(2), Duration.ofHours(1));
+        manager.createTask(old);
+        manager.createTask(moved);
+
+        Epic epic = new Epic("Sprint", "Desc");
+        Subtask first = new Subtask("First", "Desc", Status.DONE, BatchOperation.epicRef(0), base, Duration.ofHours(1));
+        Subtask second = new Subtask("Second", "Desc", Status.DONE, BatchOperation.epicRef(0),
+                base.plusHours(2), Duration.ofHours(1));
+        Task update = new Task("Moved", "Desc", Status.IN_PROGRESS, base.plusHours(6), Duration.ofHours(1));
+        update.setId(moved.getId());
+
+        // Первая подзадача занимает время удаляемой задачи, вторая — время, освобождаемое обновлением
+        manager.applyAll(List.of(
+                BatchOperation.create(epic),
+                BatchOperation.delete(TaskType.TASK, old.getId()),
+                BatchOperation.create(first),
+                BatchOperation.update(update),
+                BatchOperation.create(second)));
+
+        assertEquals(List.of(update), manager.getAllTasks());
+        List<Subtask> subtasks = manager.getSubtasksByEpicId(epic.getId());
+        assertEquals(2, subtasks.size());
+        assertTrue(first.getId() > 0 && second.getId() > 0);
+        assertEquals(Set.of(first.getId(), second.getId()), Set.of(subtasks.get(0).getId(), subtasks.get(1).getId()));
+        assertEquals(epic.getId(), subtasks.get(0).getEpicId());
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+        assertEquals(3, manager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    @DisplayName("Пачка с ошибкой не применяется ни частично, ни целиком")
+    void shouldRejectBatchAtomically() {
+        LocalDateTime base = LocalDateTime.of(2025, 9, 1, 9, 0);
+        Task existing = new Task("Existing", "Desc", Status.NEW, base, Duration.ofHours(1));
+        manager.createTask(existing);
+        long version = manager.getVersion();
+
+        // Задачи пачки пересекаются друг с другом, хотя с менеджером по отдельности не конфликтуют
+        BatchException overlap = assertThrows(BatchException.class, () -> manager.applyAll(List.of(
+                BatchOperation.create(new Task("A", "Desc", Status.NEW, base.plusHours(2), Duration.ofHours(1))),
+                BatchOperation.delete(TaskType.TASK, existing.getId()),
+                BatchOperation.create(new Task("B", "Desc", Status.NEW, base.plusHours(2).plusMinutes(30),
+                        Duration.ofHours(1))))));
+        assertEquals(2, overlap.getIndex());
+        assertInstanceOf(IntersectionException.class, overlap.getCause());
+
+        Task missing = new Task("Missing", "Desc", Status.NEW, null, null);
+        missing.setId(9999);
+        BatchException notFound = assertThrows(BatchException.class, () -> manager.applyAll(List.of(
+                BatchOperation.create(new Epic("Epic", "Desc")),
+                BatchOperation.update(missing))));
+        assertEquals(1, notFound.getIndex());
+        assertInstanceOf(NotFoundException.class, notFound.getCause());
+
+        assertThrows(BatchException.class, () -> manager.applyAll(List.of(
+                BatchOperation.create(new Subtask("Orphan", "Desc", Status.NEW, BatchOperation.epicRef(0), null, null)))));
+
+        assertEquals(List.of(existing), manager.getAllTasks());
+        assertTrue(manager.getAllEpics().isEmpty());
+        assertEquals(version, manager.getVersion());
+    }
+
+    @Test
+    @DisplayName("Пачка с переносом подзадачи в другой эпик отклоняется до применения")
+    void shouldRejectBatchMovingSubtask() {
+        Epic home = new Epic("Home", "Desc");
+        Epic other = new Epic("Other", "Desc");
+        manager.createEpic(home);
+        manager.createEpic(other);
+        Subtask subtask = new Subtask("Sub", "Desc", Status.NEW, home.getId(), null, null);
+        manager.createSubtask(subtask);
+        long version = manager.getVersion();
+
+        Subtask moved = new Subtask("Moved", "Desc", Status.DONE, other.getId(), null, null);
+        moved.setId(subtask.getId());
+        BatchException e = assertThrows(BatchException.class, () -> manager.applyAll(List.of(
+                BatchOperation.create(new Task("Created", "Desc", Status.NEW, null, null)),
+                BatchOperation.update(moved))));
+        assertEquals(1, e.getIndex());
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertEquals(List.of(subtask), manager.getSubtasksByEpicId(home.getId()));
+        assertEquals(version, manager.getVersion());
+        assertThrows(IllegalArgumentException.class, () -> new BatchOperation(BatchOperation.Kind.UPDATE,
+                TaskType.SUBTASK, moved, moved.getId() + 1));
+    }
+
+    @Test
+    @DisplayName("Задача, запланированная и снятая с расписания в одной пачке, не занимает время")
+    void shouldFreeTimeUnscheduledInSameBatch() {
+        LocalDateTime start = LocalDateTime.of(2025, 9, 8, 10, 0);
+        Task task = new Task("Task", "Desc", Status.NEW, null, null);
+        manager.createTask(task);
+        Task scheduled = new Task("Scheduled", "Desc", Status.NEW, start, Duration.ofHours(1));
+        scheduled.setId(task.getId());
+        Task unscheduled = new Task("Unscheduled", "Desc", Status.NEW, null, null);
+        unscheduled.setId(task.getId());
+        Task other = new Task("Other", "Desc", Status.NEW, start, Duration.ofHours(1));
+
+        manager.applyAll(List.of(
+                BatchOperation.update(scheduled),
+                BatchOperation.update(unscheduled),
+                BatchOperation.create(other)));
+
+        assertEquals(List.of(other), manager.getPrioritizedTasksBetween(start, start.plusHours(1)));
+        assertEquals(2, manager.getAllTasks().size());
+    }
+
+    private List<Task> historyAfter(HistoryEntry cursor, int limit) {
+        return manager.getHistory(cursor.task().getId(), cursor.view(), limit).stream()
+                .map(HistoryEntry::task)
+                .toList();
+    }
 }
@@ -0,0 +1,132 @@
+package manager;
+
+import manager.task.VersionedTaskManager;
+import model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты VersionedTaskManager")
+class VersionedTaskManagerTest extends TaskManagerTest<VersionedTaskManager> {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Override
+    protected VersionedTaskManager createManager() {
+        return new VersionedTaskManager();
+    }
+
+    @Test
+    @DisplayName("История отдаёт эпик в состоянии текущей версии")
+    void shouldResolveHistoryAgainstCurrentVersion() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Sub", "desc", Status.NEW, epic.getId(), BASE, Duration.ofMinutes(30));
+        manager.createSubtask(subtask);
+        manager.getEpicById(epic.getId());
+
+        Subtask done = new Subtask("Sub", "desc", Status.DONE, epic.getId(), BASE, Duration.ofMinutes(30));
+        done.setId(subtask.getId());
+        manager.updateSubtask(done);
+
+        assertEquals(Status.DONE, manager.getHistory().getFirst().getStatus());
+        manager.inBatch(() -> manager.deleteEpicById(epic.getId()));
+        assertTrue(manager.getHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Полученные списки не меняются от последующих записей")
+    void shouldKeepReadListsStable() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        manager.createTask(new Task("Task", "desc", Status.NEW, BASE, Duration.ofMinutes(30)));
+        List<Task> tasks = manager.getAllTasks();
+        List<Epic> epics = manager.getAllEpics();
+        List<Task> prioritized = manager.getPrioritizedTasks();
+
+        manager.createTask(new Task("Second", "desc", Status.NEW, BASE.plusHours(1), Duration.ofMinutes(30)));
+        manager.createSubtask(new Subtask("Sub", "desc", Status.DONE, epic.getId(),
+                BASE.plusHours(2), Duration.ofMinutes(30)));
+        manager.clearTasks();
+
+        assertEquals(1, tasks.size());
+        assertEquals(1, prioritized.size());
+        assertEquals(Status.NEW, epics.getFirst().getStatus(), "Эпик старой версии не должен меняться");
+        assertTrue(epics.getFirst().getSubtaskIds().isEmpty());
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus());
+        assertTrue(manager.getAllTasks().isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> manager.getAllTasks().add(null));
+    }
+
+    @Test
+    @DisplayName("Версия согласована между коллекциями и растёт с каждой записью")
+    void shouldExposeConsistentVersion() {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        VersionedTaskManager.Version before = manager.currentVersion();
+
+        manager.createSubtask(new Subtask("Sub", "desc", Status.NEW, epic.getId(), null, null));
+
+        VersionedTaskManager.Version after = manager.currentVersion();
+        assertEquals(before.number() + 1, after.number());
+        assertTrue(before.getSubtasksByEpicId(epic.getId()).isEmpty());
+        assertEquals(1, after.getSubtasksByEpicId(epic.getId()).size());
+        assertEquals(after.epics().get(epic.getId()).getSubtaskIds(),
+                after.subtasks().values().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Читатели видят только целиком опубликованные версии во время записи")
+    void shouldIsolateReadersFromConcurrentWriter() throws Exception {
+        Epic epic = new Epic("Epic", "desc");
+        manager.createEpic(epic);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 3_000; i++) {
+                    Subtask subtask = new Subtask("Sub " + i, "desc", Status.values()[i % 3], epic.getId(),
+                            BASE.plusMinutes(i * 10L), Duration.ofMinutes(5));
+                    manager.createSubtask(subtask);
+                    if (i % 3 == 2) {
+                        manager.deleteSubtaskById(subtask.getId());
+                    }
+                }
+                done.set(true);
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        VersionedTaskManager.Version version = manager.currentVersion();
+                        Epic seen = version.epics().get(epic.getId());
+                        List<Subtask> subtasks = version.getSubtasksByEpicId(epic.getId());
+                        assertEquals(seen.getSubtaskIds().size(), subtasks.size());
+                        assertEquals(version.subtasks().size(), version.prioritized().size());
+                        if (!subtasks.isEmpty()) {
+                            assertEquals(subtasks.getLast().getEndTime(), seen.getEndTime());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            writer.get(60, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2_000, manager.getAllSubtasks().size());
+    }
+}
@@ -0,0 +1,52 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashMapTest {
+
+    @Test
+    @DisplayName("Результаты совпадают с HashMap на случайных операциях")
+    void matchesHashMap() {
+        Random random = new Random(7);
+        Map<Integer, String> expected = new HashMap<>();
+        IntHashMap<String> map = new IntHashMap<>();
+        IntIntMap ints = new IntIntMap(-1);
+
+        for (int step = 0; step < 50_000; step++) {
+            // Отрицательные ключи и ключи с общим остатком проверяют цепочки коллизий
+            int key = (random.nextInt(4_000) - 2_000) * 64;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+                ints.remove(key);
+            } else {
+                assertEquals(expected.put(key, "v" + step), map.put(key, "v" + step));
+                ints.put(key, step);
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.size(), ints.size());
+        }
+        for (int key = -2_000 * 64; key < 2_000 * 64; key += 64) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), ints.containsKey(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Отсутствующий ключ в IntIntMap даёт noValue, а само noValue хранить нельзя")
+    void intIntMapReservesNoValue() {
+        IntIntMap map = new IntIntMap(-1);
+        assertEquals(-1, map.get(5));
+        assertEquals(-1, map.put(5, 10));
+        assertEquals(10, map.put(5, 11));
+        assertEquals(11, map.remove(5));
+        assertThrows(IllegalArgumentException.class, () -> map.put(6, -1));
+        assertTrue(map.isEmpty());
+    }
+}
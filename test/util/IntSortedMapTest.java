@@ -0,0 +1,62 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSortedMapTest {
+
+    @Test
+    @DisplayName("Результаты совпадают с TreeMap на случайных операциях")
+    void matchesTreeMap() {
+        Random random = new Random(5);
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        IntSortedMap<String> map = new IntSortedMap<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            int key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, "v" + step), map.put(key, "v" + step));
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        int from = random.nextInt(2_000);
+        assertEquals(new ArrayList<>(expected.tailMap(from, false).values()),
+                new ArrayList<>(map.valuesAfter(from)));
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    @Test
+    @DisplayName("Удалённые записи не видны, а ключ можно добавить снова")
+    void removedKeysCanBeReused() {
+        IntSortedMap<String> map = new IntSortedMap<>();
+        for (int id = 1; id <= 100; id++) {
+            map.put(id, "v" + id);
+        }
+        for (int id = 1; id <= 90; id++) {
+            map.remove(id);
+        }
+        assertEquals(10, map.size());
+        assertNull(map.get(50));
+        assertFalse(map.containsKey(50));
+        assertEquals(List.of("v91", "v92"), new ArrayList<>(map.valuesAfter(0)).subList(0, 2));
+
+        map.put(50, "again");
+        assertEquals("again", map.get(50));
+        assertEquals("again", map.values().iterator().next());
+        assertEquals(11, map.values().size());
+        assertThrows(NullPointerException.class, () -> map.put(7, null));
+    }
+}
@@ -0,0 +1,115 @@
+package util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniqueIntListTest {
+
+    @Test
+    @DisplayName("Порядок и состав совпадают с LinkedHashSet на случайных операциях")
+    void matchesLinkedHashSet() {
+        Random random = new Random(11);
+        LinkedHashSet<Integer> expected = new LinkedHashSet<>();
+        UniqueIntList list = new UniqueIntList();
+
+        for (int step = 0; step < 20_000; step++) {
+            int value = random.nextInt(300);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), list.removeInt(value));
+            } else {
+                assertEquals(expected.add(value), list.addInt(value));
+            }
+            assertEquals(expected.size(), list.size());
+            assertEquals(expected.contains(value), list.containsInt(value));
+            if (!expected.isEmpty()) {
+                assertEquals(expected.getFirst(), list.getFirst());
+            }
+            if (step % 500 == 0) {
+                assertEquals(new ArrayList<>(expected), list);
+            }
+        }
+        assertEquals(new ArrayList<>(expected), list);
+        List<Integer> visited = new ArrayList<>();
+        list.forEachInt(visited::add);
+        assertEquals(new ArrayList<>(expected), visited);
+    }
+
+    @Test
+    @DisplayName("Список ведёт себя как List<Integer>: равенство, indexOf и очистка")
+    void behavesAsList() {
+        UniqueIntList list = new UniqueIntList();
+        for (int i = 1; i <= 20; i++) {
+            list.addInt(i * 10);
+        }
+        list.removeInt(10);
+        list.removeInt(100);
+
+        assertEquals(18, list.size());
+        assertEquals(20, list.getFirst());
+        assertEquals(0, list.indexOf(20));
+        assertEquals(8, list.indexOf(110));
+        assertEquals(-1, list.indexOf(100));
+        assertTrue(list.remove((Object) 200));
+        assertEquals(List.of(20, 30), list.subList(0, 2));
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        list.add(5);
+        assertEquals(List.of(5), list);
+    }
+
+    @Test
+    @DisplayName("Чтение списка с дырами ничего не меняет и безопасно из нескольких потоков")
+    void readsLeaveHolesInPlace() throws InterruptedException {
+        UniqueIntList list = new UniqueIntList();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            list.addInt(i);
+            if (i % 5 != 0) expected.add(i);
+        }
+        for (int i = 5; i <= 40; i += 5) {
+            list.removeInt(i);
+        }
+
+        // Обращение по индексу посреди обхода не сдвигает элементы под итератором
+        List<Integer> visited = new ArrayList<>();
+        for (Integer value : list) {
+            visited.add(value);
+            assertEquals(expected.get(expected.size() - 1), list.get(list.size() - 1));
+        }
+        assertEquals(expected, visited);
+        assertEquals(expected.indexOf(39), list.indexOf(39));
+
+        List<Thread> readers = new ArrayList<>();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    for (int round = 0; round < 2_000; round++) {
+                        assertEquals(expected.get(round % expected.size()), list.get(round % expected.size()));
+                        List<Integer> seen = new ArrayList<>();
+                        list.forEachInt(seen::add);
+                        assertEquals(expected, seen);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertTrue(failures.isEmpty(), () -> failures.get(0).toString());
+        assertEquals(expected, list);
+    }
+}